@@ -13,9 +13,11 @@ import net.sourceforge.pmd.lang.VisitorStarter;
 import net.sourceforge.pmd.lang.XPathHandler;
 import net.sourceforge.pmd.lang.apex.ast.ApexNode;
 import net.sourceforge.pmd.lang.apex.ast.DumpFacade;
+import net.sourceforge.pmd.lang.apex.metrics.ApexMetricsExporter;
 import net.sourceforge.pmd.lang.apex.multifile.ApexMultifileVisitorFacade;
 import net.sourceforge.pmd.lang.apex.rule.ApexRuleViolationFactory;
 import net.sourceforge.pmd.lang.ast.xpath.DefaultASTXPathHandler;
+import net.sourceforge.pmd.lang.metrics.MetricsExporter;
 import net.sourceforge.pmd.lang.rule.RuleViolationFactory;
 
 public class ApexHandler extends AbstractLanguageVersionHandler {
@@ -51,4 +53,9 @@ public class ApexHandler extends AbstractLanguageVersionHandler {
         return rootNode -> new DumpFacade().initializeWith(writer, prefix, recurse, (ApexNode<?>) rootNode);
     }
 
+    @Override
+    public MetricsExporter<?, ?> getMetricsExporter(Writer writer) {
+        return new ApexMetricsExporter(writer);
+    }
+
 }
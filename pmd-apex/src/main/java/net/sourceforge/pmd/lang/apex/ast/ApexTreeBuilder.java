@@ -10,7 +10,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Stack;
 
-import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.ChildrenBuilder;
 import net.sourceforge.pmd.lang.ast.SourceCodePositioner;
 
 import apex.jorje.semantic.ast.AstNode;
@@ -212,7 +212,7 @@ public final class ApexTreeBuilder extends AstVisitor<AdditionalPassScope> {
     }
 
     // The nodes having children built.
-    private Stack<Node> nodes = new Stack<>();
+    private final ChildrenBuilder nodes = new ChildrenBuilder();
 
     // The Apex nodes with children to build.
     private Stack<AstNode> parents = new Stack<>();
@@ -255,17 +255,13 @@ public final class ApexTreeBuilder extends AstVisitor<AdditionalPassScope> {
         node.handleSourceCode(sourceCode);
 
         // Append to parent
-        Node parent = nodes.isEmpty() ? null : nodes.peek();
-        if (parent != null) {
-            parent.jjtAddChild(node, parent.jjtGetNumChildren());
-            node.jjtSetParent(parent);
-        }
+        nodes.add(node);
 
         // Build the children...
-        nodes.push(node);
+        nodes.open(node);
         parents.push(astNode);
         astNode.traverse(this, scope);
-        nodes.pop();
+        nodes.close();
         parents.pop();
 
         return node;
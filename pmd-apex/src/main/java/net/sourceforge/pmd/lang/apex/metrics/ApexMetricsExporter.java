@@ -0,0 +1,61 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.apex.metrics;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.apex.ApexLanguageModule;
+import net.sourceforge.pmd.lang.apex.ast.ASTMethod;
+import net.sourceforge.pmd.lang.apex.ast.ASTUserClassOrInterface;
+import net.sourceforge.pmd.lang.apex.ast.ApexNode;
+import net.sourceforge.pmd.lang.apex.ast.ApexParserVisitorReducedAdapter;
+import net.sourceforge.pmd.lang.apex.metrics.api.ApexClassMetricKey;
+import net.sourceforge.pmd.lang.apex.metrics.api.ApexOperationMetricKey;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.metrics.MetricKey;
+import net.sourceforge.pmd.lang.metrics.MetricsExporter;
+
+/**
+ * Exports all the standard Apex metrics of a project.
+ *
+ * @since 6.6.0
+ */
+public class ApexMetricsExporter extends MetricsExporter<ASTUserClassOrInterface<?>, ASTMethod> {
+
+    /**
+     * Creates an exporter computing all the metrics of {@link ApexClassMetricKey} and {@link ApexOperationMetricKey}.
+     *
+     * @param writer The destination of the table
+     */
+    public ApexMetricsExporter(Writer writer) {
+        super(LanguageRegistry.getLanguage(ApexLanguageModule.NAME), ApexMetrics.getFacade(),
+              Arrays.<MetricKey<ASTUserClassOrInterface<?>>>asList(ApexClassMetricKey.values()),
+              Arrays.<MetricKey<ASTMethod>>asList(ApexOperationMetricKey.values()), writer);
+    }
+
+
+    @Override
+    protected List<ASTUserClassOrInterface<?>> findTypes(Node root) {
+        final List<ASTUserClassOrInterface<?>> types = new ArrayList<>();
+        ((ApexNode<?>) root).jjtAccept(new ApexParserVisitorReducedAdapter() {
+            @Override
+            public Object visit(ASTUserClassOrInterface<?> node, Object data) {
+                types.add(node);
+                return super.visit(node, data);
+            }
+        }, null);
+        return types;
+    }
+
+
+    @Override
+    protected List<ASTMethod> findOperations(ASTUserClassOrInterface<?> node) {
+        return ApexMetricsComputer.INSTANCE.findOperations(node);
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.apex.metrics;
+
+import static net.sourceforge.pmd.lang.apex.metrics.ApexProjectMirrorTest.parseAndVisitForString;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.PMD;
+
+public class ApexMetricsExporterTest {
+
+    private static final String TEST_CODE = "public class Foo {" + PMD.EOL
+        + "  public void bar(Boolean b) {" + PMD.EOL
+        + "    if (b) { System.debug('b'); }" + PMD.EOL
+        + "  }" + PMD.EOL
+        + "}";
+
+
+    @Test
+    public void testExport() throws IOException {
+        StringWriter writer = new StringWriter();
+        ApexMetricsExporter exporter = new ApexMetricsExporter(writer);
+
+        exporter.writeHeader();
+        exporter.export("Foo.cls", parseAndVisitForString(TEST_CODE));
+
+        String[] lines = writer.toString().split(PMD.EOL);
+        assertEquals(3, lines.length);
+        assertEquals("file,kind,name,WMC,CYCLO", lines[0]);
+        assertEquals("Foo.cls,type,c__Foo,2,", lines[1]);
+        assertEquals("Foo.cls,operation,c__Foo#bar(Boolean),,2", lines[2]);
+    }
+
+
+    @Test
+    public void testSameClassInAnotherFile() throws IOException {
+        StringWriter writer = new StringWriter();
+        ApexMetricsExporter exporter = new ApexMetricsExporter(writer);
+
+        exporter.export("Foo.cls", parseAndVisitForString(TEST_CODE));
+        exporter.export("other/Foo.cls", parseAndVisitForString("public class Foo {" + PMD.EOL
+            + "  public void bar(Boolean b) { }" + PMD.EOL
+            + "}"));
+
+        String[] lines = writer.toString().split(PMD.EOL);
+        assertEquals(4, lines.length);
+        assertEquals("other/Foo.cls,type,c__Foo,1,", lines[2]);
+        assertEquals("other/Foo.cls,operation,c__Foo#bar(Boolean),,1", lines[3]);
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import net.sourceforge.pmd.renderers.BinaryRenderer;
+import net.sourceforge.pmd.renderers.BinaryReportReader;
+
+/**
+ * The violations of a previous report, which aren't reported again. Each
+ * violation is only kept as a 64 bit fingerprint, which is a hash of its
+ * file, rule, description, and class, method and variable names. The line
+ * numbers aren't part of the fingerprint, so that a violation is still
+ * found in the baseline when the code above it changed.
+ *
+ * <p>A baseline is loaded from a report written by the {@link BinaryRenderer},
+ * with {@link #load(File)}, and is given to the {@link Report} of the
+ * analysis with {@link Report#setBaseline(Baseline)}. If a file has more
+ * violations with the same fingerprint than the baseline, the extra
+ * violations are reported.
+ *
+ * <p>The filenames of the baseline must be the same as those of the analysis,
+ * so the baseline has to be created with the same input paths and
+ * {@code -shortnames} option.
+ *
+ * @since 6.6.0
+ */
+public final class Baseline {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** Sorted, and repeated as many times as the fingerprint was found. */
+    private final long[] fingerprints;
+
+
+    private Baseline(long[] fingerprints) {
+        Arrays.sort(fingerprints);
+        this.fingerprints = fingerprints;
+    }
+
+
+    /**
+     * Loads the violations of a binary report.
+     *
+     * @param binaryReport The report
+     *
+     * @return The baseline
+     *
+     * @throws IOException If the report can't be read
+     */
+    public static Baseline load(File binaryReport) throws IOException {
+        try (BinaryReportReader reader = new BinaryReportReader(binaryReport)) {
+            long[] fingerprints = new long[reader.getViolationCount()];
+            int i = 0;
+            for (String filename : reader.getFilenames()) {
+                for (BinaryReportReader.Violation v : reader.readViolations(filename)) {
+                    fingerprints[i++] = fingerprint(v.getFilename(), v.getRuleSetName(), v.getRuleName(),
+                            v.getDescription(), v.getClassName(), v.getMethodName(), v.getVariableName());
+                }
+            }
+            return new Baseline(fingerprints);
+        }
+    }
+
+
+    /**
+     * Creates a baseline with the violations of a report.
+     *
+     * @param report The report
+     *
+     * @return The baseline
+     */
+    public static Baseline of(Report report) {
+        long[] fingerprints = new long[report.size()];
+        int i = 0;
+        for (RuleViolation violation : report) {
+            fingerprints[i++] = fingerprint(violation);
+        }
+        return new Baseline(fingerprints);
+    }
+
+
+    /**
+     * Returns the number of violations in the baseline.
+     *
+     * @return The number of violations
+     */
+    public int size() {
+        return fingerprints.length;
+    }
+
+
+    /**
+     * Returns the number of violations of the baseline with the given
+     * fingerprint.
+     *
+     * @param fingerprint The fingerprint
+     *
+     * @return The number of violations, 0 if there's none
+     */
+    public int count(long fingerprint) {
+        int i = Arrays.binarySearch(fingerprints, fingerprint);
+        if (i < 0) {
+            return 0;
+        }
+        int first = i;
+        while (first > 0 && fingerprints[first - 1] == fingerprint) {
+            first--;
+        }
+        int last = i;
+        while (last < fingerprints.length - 1 && fingerprints[last + 1] == fingerprint) {
+            last++;
+        }
+        return last - first + 1;
+    }
+
+
+    /**
+     * Computes the fingerprint of a violation.
+     *
+     * @param violation The violation
+     *
+     * @return The fingerprint
+     */
+    public static long fingerprint(RuleViolation violation) {
+        Rule rule = violation.getRule();
+        return fingerprint(violation.getFilename(), rule.getRuleSetName(), rule.getName(),
+                           violation.getDescription(), violation.getClassName(), violation.getMethodName(),
+                           violation.getVariableName());
+    }
+
+
+    /**
+     * Hashes the parts with FNV-1a. The runs of whitespace are hashed as a
+     * single space, and a missing part is the same as an empty one.
+     */
+    private static long fingerprint(String... parts) {
+        long hash = FNV_OFFSET_BASIS;
+        for (String part : parts) {
+            if (part != null) {
+                boolean whitespace = false;
+                for (int i = 0; i < part.length(); i++) {
+                    char c = part.charAt(i);
+                    if (Character.isWhitespace(c)) {
+                        whitespace = true;
+                        continue;
+                    }
+                    if (whitespace) {
+                        hash = (hash ^ ' ') * FNV_PRIME;
+                        whitespace = false;
+                    }
+                    hash = (hash ^ c) * FNV_PRIME;
+                }
+            }
+            // separates the parts, so that moving characters from a part to the next changes the hash
+            hash = (hash ^ 0xFFFF) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+
+    /**
+     * Counts the violations of a report which were found in the baseline, by
+     * fingerprint, in an open-addressed table of primitives. It only holds the
+     * fingerprints which were found, so it stays small for a large baseline.
+     */
+    static final class Matches {
+
+        /** Initial capacity of the table, must be a power of two. */
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final Baseline baseline;
+        private long[] fingerprints = new long[INITIAL_CAPACITY];
+        /** The number of matches of each fingerprint, 0 for a free slot. */
+        private int[] counts = new int[INITIAL_CAPACITY];
+        private int size;
+
+
+        Matches(Baseline baseline) {
+            this.baseline = baseline;
+        }
+
+
+        /**
+         * Matches a violation with the baseline, unless all the violations of
+         * the baseline with the same fingerprint were already matched.
+         *
+         * @param fingerprint The fingerprint of the violation
+         *
+         * @return True if the violation is in the baseline, false if it's new
+         */
+        boolean match(long fingerprint) {
+            int known = baseline.count(fingerprint);
+            if (known == 0) {
+                return false;
+            }
+            int index = indexOf(fingerprints, counts, fingerprint);
+            if (counts[index] == known) {
+                return false;
+            }
+            if (counts[index] == 0) {
+                if (2 * (size + 1) > counts.length) {
+                    grow();
+                    index = indexOf(fingerprints, counts, fingerprint);
+                }
+                fingerprints[index] = fingerprint;
+                size++;
+            }
+            counts[index]++;
+            return true;
+        }
+
+
+        private void grow() {
+            long[] oldFingerprints = fingerprints;
+            int[] oldCounts = counts;
+            fingerprints = new long[oldCounts.length * 2];
+            counts = new int[oldCounts.length * 2];
+            for (int i = 0; i < oldCounts.length; i++) {
+                if (oldCounts[i] != 0) {
+                    int index = indexOf(fingerprints, counts, oldFingerprints[i]);
+                    fingerprints[index] = oldFingerprints[i];
+                    counts[index] = oldCounts[i];
+                }
+            }
+        }
+
+
+        /** Returns the slot of the fingerprint in the table, or the free slot where it should be inserted. */
+        private static int indexOf(long[] fingerprints, int[] counts, long fingerprint) {
+            int mask = counts.length - 1;
+            int index = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+            while (counts[index] != 0 && fingerprints[index] != fingerprint) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+    }
+}
@@ -6,6 +6,7 @@ package net.sourceforge.pmd;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.net.URISyntaxException;
@@ -21,6 +22,10 @@ import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.NullWriter;
+import org.apache.commons.lang3.StringUtils;
+
 import net.sourceforge.pmd.benchmark.TextTimingReportRenderer;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
@@ -30,6 +35,7 @@ import net.sourceforge.pmd.benchmark.TimingReportRenderer;
 import net.sourceforge.pmd.cache.NoopAnalysisCache;
 import net.sourceforge.pmd.cli.PMDCommandLineInterface;
 import net.sourceforge.pmd.cli.PMDParameters;
+import net.sourceforge.pmd.lang.AbstractLanguageVersionHandler;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageFilenameFilter;
 import net.sourceforge.pmd.lang.LanguageVersion;
@@ -37,9 +43,14 @@ import net.sourceforge.pmd.lang.LanguageVersionDiscoverer;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
 import net.sourceforge.pmd.lang.Parser;
 import net.sourceforge.pmd.lang.ParserOptions;
+import net.sourceforge.pmd.lang.metrics.MetricsExporter;
+import net.sourceforge.pmd.processor.AbstractPMDProcessor;
 import net.sourceforge.pmd.processor.MonoThreadProcessor;
 import net.sourceforge.pmd.processor.MultiThreadProcessor;
+import net.sourceforge.pmd.renderers.AsyncRenderer;
+import net.sourceforge.pmd.renderers.BinaryRenderer;
 import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.renderers.ShardedRenderer;
 import net.sourceforge.pmd.stat.Metric;
 import net.sourceforge.pmd.util.ClasspathClassLoader;
 import net.sourceforge.pmd.util.FileUtil;
@@ -198,6 +209,11 @@ public class PMD {
      * @param configuration
      *            the configure to use
      * @return number of violations found.
+     * @throws IllegalArgumentException
+     *             if the baseline of the configuration can't be loaded
+     * @throws IllegalStateException
+     *             if the analysis stopped early in fail-fast mode because a
+     *             file couldn't be analysed, once the report is written
      */
     public static int doPMD(PMDConfiguration configuration) {
 
@@ -210,19 +226,39 @@ public class PMD {
 
         Set<Language> languages = getApplicableLanguages(configuration, ruleSets);
         List<DataSource> files = getApplicableFiles(configuration, languages);
+        // loaded before the report is started, so that a broken baseline fails the run without a report
+        Baseline baseline = loadBaseline(configuration);
 
+        final int violationCount;
+        final boolean stoppedByFailure;
         try {
             Renderer renderer;
             List<Renderer> renderers;
             try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
                 renderer = configuration.createRenderer();
+                Writer writer;
+                if (renderer instanceof ShardedRenderer) {
+                    // the shards are written to their own files, on their own threads
+                    writer = NullWriter.NULL_WRITER;
+                } else if (renderer instanceof BinaryRenderer) {
+                    // the binary report is written to a stream, not to the writer
+                    OutputStream stream = IOUtil.createOutputStream(configuration.getReportFile());
+                    ((BinaryRenderer) renderer).setOutputStream(stream);
+                    writer = NullWriter.NULL_WRITER;
+                } else {
+                    writer = IOUtil.createWriter(configuration.getReportFile());
+                }
+                if (configuration.isAsyncRendering() && !(renderer instanceof ShardedRenderer)) {
+                    renderer = new AsyncRenderer(renderer);
+                }
                 renderers = Collections.singletonList(renderer);
 
-                renderer.setWriter(IOUtil.createWriter(configuration.getReportFile()));
+                renderer.setWriter(writer);
                 renderer.start();
             }
 
             RuleContext ctx = new RuleContext();
+            ctx.getReport().setBaseline(baseline);
             final AtomicInteger violations = new AtomicInteger(0);
             ctx.getReport().addListener(new ThreadSafeReportListener() {
                 @Override
@@ -237,13 +273,14 @@ public class PMD {
             });
 
             try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.FILE_PROCESSING)) {
-                processFiles(configuration, ruleSetFactory, files, ctx, renderers);
+                stoppedByFailure = runProcessor(configuration, ruleSetFactory, files, ctx, renderers)
+                        .isStoppedByFailure();
             }
 
             try (TimedOperation rto = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
                 renderer.end();
                 renderer.flush();
-                return violations.get();
+                violationCount = violations.get();
             }
         } catch (Exception e) {
             String message = e.getMessage();
@@ -265,6 +302,66 @@ public class PMD {
                 IOUtil.tryCloseClassLoader(configuration.getClassLoader());
             }
         }
+
+        if (stoppedByFailure) {
+            // the violations of the files which weren't analysed are unknown
+            throw new IllegalStateException("The analysis stopped early because a file couldn't be analysed, "
+                    + "see the processing errors of the report");
+        }
+        return violationCount;
+    }
+
+    /**
+     * Exports the metrics of the classes and operations of the source files
+     * to the report file, instead of applying the rule sets, see
+     * {@link PMDConfiguration#getMetricsExportLanguage()}.
+     *
+     * @param configuration
+     *            the given configuration
+     *
+     * @throws IOException
+     *             If the table can't be written
+     * @throws IllegalArgumentException
+     *             If the language has no metrics
+     */
+    public static void exportMetrics(PMDConfiguration configuration) throws IOException {
+        Language language = configuration.getMetricsExportLanguage();
+        LanguageVersionHandler handler = configuration.getLanguageVersionDiscoverer()
+                .getDefaultLanguageVersion(language).getLanguageVersionHandler();
+        List<DataSource> files = getApplicableFiles(configuration, Collections.singleton(language));
+
+        // System.out is shielded, it mustn't be closed with the writer
+        try (Writer writer = StringUtils.isBlank(configuration.getReportFile())
+                ? new OutputStreamWriter(new CloseShieldOutputStream(System.out))
+                : IOUtil.createWriter(configuration.getReportFile())) {
+            MetricsExporter<?, ?> exporter = handler instanceof AbstractLanguageVersionHandler
+                    ? ((AbstractLanguageVersionHandler) handler).getMetricsExporter(writer) : null;
+            if (exporter == null) {
+                throw new IllegalArgumentException("There are no metrics for the language " + language.getName());
+            }
+            exporter.exportAll(configuration, files);
+        } finally {
+            if (configuration.getClassLoader() instanceof ClasspathClassLoader) {
+                IOUtil.tryCloseClassLoader(configuration.getClassLoader());
+            }
+        }
+    }
+
+    /**
+     * Loads the baseline of the configuration, if any.
+     *
+     * @throws IllegalArgumentException If the baseline can't be read
+     */
+    private static Baseline loadBaseline(PMDConfiguration configuration) {
+        if (configuration.getBaselineLocation() == null) {
+            return null;
+        }
+        try {
+            return Baseline.load(new File(configuration.getBaselineLocation()));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not load the baseline " + configuration.getBaselineLocation()
+                    + ": " + e.getMessage(), e);
+        }
     }
 
     /**
@@ -302,6 +399,17 @@ public class PMD {
      */
     public static void processFiles(final PMDConfiguration configuration, final RuleSetFactory ruleSetFactory,
             final List<DataSource> files, final RuleContext ctx, final List<Renderer> renderers) {
+        runProcessor(configuration, ruleSetFactory, files, ctx, renderers);
+    }
+
+    /**
+     * Runs PMD on a list of files, see {@link #processFiles(PMDConfiguration, RuleSetFactory, List, RuleContext, List)}.
+     *
+     * @return The processor which analysed the files, to check whether it stopped early
+     */
+    private static AbstractPMDProcessor runProcessor(final PMDConfiguration configuration,
+            final RuleSetFactory ruleSetFactory, final List<DataSource> files, final RuleContext ctx,
+            final List<Renderer> renderers) {
 
         if (!configuration.isIgnoreIncrementalAnalysis()
                 && configuration.getAnalysisCache() instanceof NoopAnalysisCache
@@ -323,14 +431,17 @@ public class PMD {
          * be disabled if threadCount is not positive, e.g. using the
          * "-threads 0" command line option.
          */
+        AbstractPMDProcessor processor;
         if (configuration.getThreads() > 0) {
-            new MultiThreadProcessor(configuration).processFiles(silentFactoy, files, ctx, renderers);
+            processor = new MultiThreadProcessor(configuration);
         } else {
-            new MonoThreadProcessor(configuration).processFiles(silentFactoy, files, ctx, renderers);
+            processor = new MonoThreadProcessor(configuration);
         }
+        processor.processFiles(silentFactoy, files, ctx, renderers);
 
         // Persist the analysis cache
         configuration.getAnalysisCache().persist();
+        return processor;
     }
 
     private static void sortFiles(final PMDConfiguration configuration, final List<DataSource> files) {
@@ -465,11 +576,16 @@ public class PMD {
         LOG.setLevel(logLevel);
 
         try {
-            int violations = PMD.doPMD(configuration);
-            if (violations > 0 && configuration.isFailOnViolation()) {
-                status = PMDCommandLineInterface.VIOLATIONS_FOUND;
-            } else {
+            if (configuration.getMetricsExportLanguage() != null) {
+                PMD.exportMetrics(configuration);
                 status = 0;
+            } else {
+                int violations = PMD.doPMD(configuration);
+                if (violations > 0 && configuration.isFailOnViolation()) {
+                    status = PMDCommandLineInterface.VIOLATIONS_FOUND;
+                } else {
+                    status = 0;
+                }
             }
         } catch (Exception e) {
             System.out.println(PMDCommandLineInterface.buildUsageText());
@@ -10,14 +10,20 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 
+import org.apache.commons.io.output.NullWriter;
+import org.apache.commons.lang3.StringUtils;
+
 import net.sourceforge.pmd.cache.AnalysisCache;
 import net.sourceforge.pmd.cache.FileAnalysisCache;
 import net.sourceforge.pmd.cache.NoopAnalysisCache;
+import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.LanguageVersionDiscoverer;
+import net.sourceforge.pmd.renderers.BinaryRenderer;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.renderers.RendererFactory;
+import net.sourceforge.pmd.renderers.ShardedRenderer;
 import net.sourceforge.pmd.util.ClasspathClassLoader;
 import net.sourceforge.pmd.util.IOUtil;
 
@@ -67,6 +73,25 @@ import net.sourceforge.pmd.util.IOUtil;
  * {@link #getReportProperties()}</li>
  * <li>An indicator of whether to show suppressed Rule violations in Reports.
  * {@link #isShowSuppressedViolations()}</li>
+ * <li>An indicator of whether to render the Reports on a dedicated thread,
+ * defaults to <code>false</code>. {@link #isAsyncRendering()}</li>
+ * <li>The binary report of the baseline, whose violations aren't reported,
+ * defaults to <code>null</code>. {@link #getBaselineLocation()}</li>
+ * <li>The number of files whose violations are collected in the same Report
+ * by a thread, defaults to <code>0</code>, which means that each file has
+ * its own Report. {@link #getReportBatchSize()}</li>
+ * <li>How the report is split in several files, defaults to <code>null</code>,
+ * which means that the report is written to a single file.
+ * {@link #getReportShards()}</li>
+ * </ul>
+ *
+ * <p>The aspects related to stopping the analysis early are:</p>
+ * <ul>
+ * <li>The number of violations after which the analysis stops, defaults to
+ * <code>0</code>, which means that all the files are analysed.
+ * {@link #getFailFastThreshold()}</li>
+ * <li>The priority of the violations which are counted, defaults to
+ * {@link RulePriority#LOW}. {@link #getFailFastPriority()}</li>
  * </ul>
  *
  * <p>The aspects related to special PMD behavior are:</p>
@@ -77,6 +102,8 @@ import net.sourceforge.pmd.util.IOUtil;
  * as randomizing the order of file processing. {@link #isStressTest()}</li>
  * <li>An indicator of whether PMD should log benchmarking information.
  * {@link #isBenchmark()}</li>
+ * <li>The language whose metrics are exported instead of applying the
+ * RuleSets, defaults to <code>null</code>. {@link #getMetricsExportLanguage()}</li>
  * </ul>
  */
 public class PMDConfiguration extends AbstractConfiguration {
@@ -101,6 +128,13 @@ public class PMDConfiguration extends AbstractConfiguration {
     private Properties reportProperties = new Properties();
     private boolean showSuppressedViolations = false;
     private boolean failOnViolation = true;
+    private boolean asyncRendering = false;
+    private String baselineLocation;
+    private int reportBatchSize = 0;
+    private ShardedRenderer.ShardBy reportShards;
+    private int failFastThreshold = 0;
+    private RulePriority failFastPriority = RulePriority.LOW;
+    private Language metricsExportLanguage;
 
     private boolean stressTest;
     private boolean benchmark;
@@ -384,9 +418,23 @@ public class PMDConfiguration extends AbstractConfiguration {
      * @return A Renderer instance.
      */
     public Renderer createRenderer(boolean withReportWriter) {
-        Renderer renderer = RendererFactory.createRenderer(reportFormat, reportProperties);
+        Renderer renderer;
+        if (reportShards != null) {
+            if (StringUtils.isBlank(reportFile)) {
+                throw new IllegalArgumentException("A sharded report needs a report directory");
+            }
+            renderer = new ShardedRenderer(reportFormat, reportProperties, new File(reportFile), reportShards,
+                                           inputPaths);
+        } else {
+            renderer = RendererFactory.createRenderer(reportFormat, reportProperties);
+        }
         renderer.setShowSuppressedViolations(showSuppressedViolations);
-        if (withReportWriter) {
+        if (renderer instanceof ShardedRenderer) {
+            // the shards are written to their own files
+            renderer.setWriter(NullWriter.NULL_WRITER);
+        } else if (withReportWriter && renderer instanceof BinaryRenderer) {
+            ((BinaryRenderer) renderer).setOutputStream(IOUtil.createOutputStream(reportFile));
+        } else if (withReportWriter) {
             renderer.setWriter(IOUtil.createWriter(reportFile));
         }
         return renderer;
@@ -538,6 +586,181 @@ public class PMDConfiguration extends AbstractConfiguration {
         this.failOnViolation = failOnViolation;
     }
 
+    /**
+     * Whether the reports are rendered on a dedicated thread, see
+     * {@link net.sourceforge.pmd.renderers.AsyncRenderer}. The default is
+     * false.
+     *
+     * @return asyncRendering
+     */
+    public boolean isAsyncRendering() {
+        return asyncRendering;
+    }
+
+    /**
+     * Sets whether the reports are rendered on a dedicated thread, see
+     * {@link net.sourceforge.pmd.renderers.AsyncRenderer}.
+     *
+     * @param asyncRendering
+     *            asyncRendering
+     */
+    public void setAsyncRendering(boolean asyncRendering) {
+        this.asyncRendering = asyncRendering;
+    }
+
+    /**
+     * Get the location of the binary report of the baseline, see
+     * {@link Baseline}.
+     *
+     * @return The baseline location, or null if all the violations are reported
+     */
+    public String getBaselineLocation() {
+        return baselineLocation;
+    }
+
+    /**
+     * Set the location of the binary report of the baseline, see
+     * {@link Baseline}.
+     *
+     * @param baselineLocation
+     *            The baseline location, or null to report all the violations
+     */
+    public void setBaselineLocation(String baselineLocation) {
+        this.baselineLocation = baselineLocation;
+    }
+
+    /**
+     * Get the number of files whose violations are collected in the same
+     * Report by a thread, before it's rendered. Each thread keeps its Report
+     * for the files it analyses, so that fewer Reports are created and
+     * handed over to the renderers. The Reports of the last files are
+     * rendered at the end of the analysis, so a large value means that the
+     * Reports are merged once, at the end. This suits the renderers which
+     * accumulate the whole report. The default is 0, which means that each
+     * file has its own Report, rendered as soon as the file is analysed.
+     *
+     * @return The report batch size
+     */
+    public int getReportBatchSize() {
+        return reportBatchSize;
+    }
+
+    /**
+     * Set the number of files whose violations are collected in the same
+     * Report by a thread, see {@link #getReportBatchSize()}.
+     *
+     * @param reportBatchSize
+     *            The report batch size, or 0 for a Report per file
+     */
+    public void setReportBatchSize(int reportBatchSize) {
+        this.reportBatchSize = reportBatchSize;
+    }
+
+    /**
+     * Get how the report is split in several files, written concurrently to
+     * the directory given as report file: a file per input path, module or
+     * package. This makes it possible to load only a part of the report of a
+     * large code base. The default is null, which means that the report is
+     * written to a single file.
+     *
+     * @return How the report is split, or null
+     *
+     * @see ShardedRenderer
+     */
+    public ShardedRenderer.ShardBy getReportShards() {
+        return reportShards;
+    }
+
+    /**
+     * Set how the report is split in several files, see
+     * {@link #getReportShards()}.
+     *
+     * @param reportShards
+     *            How the report is split, or null for a single file
+     */
+    public void setReportShards(ShardedRenderer.ShardBy reportShards) {
+        this.reportShards = reportShards;
+    }
+
+    /**
+     * Get the language whose metrics are exported instead of applying the
+     * rule sets. The metrics of every class and operation of the source files
+     * are then written to the report file as a CSV table, see
+     * {@link net.sourceforge.pmd.lang.metrics.MetricsExporter}. The default
+     * is null, which means that the rule sets are applied.
+     *
+     * @return The language whose metrics are exported, or null
+     */
+    public Language getMetricsExportLanguage() {
+        return metricsExportLanguage;
+    }
+
+    /**
+     * Set the language whose metrics are exported instead of applying the
+     * rule sets, see {@link #getMetricsExportLanguage()}.
+     *
+     * @param metricsExportLanguage
+     *            The language whose metrics are exported, or null to apply
+     *            the rule sets
+     */
+    public void setMetricsExportLanguage(Language metricsExportLanguage) {
+        this.metricsExportLanguage = metricsExportLanguage;
+    }
+
+    /**
+     * Get the number of violations after which the analysis stops. The
+     * analysis also stops once a file couldn't be analysed. The files which
+     * had violations, failed or changed since the previous analysis, according
+     * to the analysis cache, are analysed first. The default is 0, which
+     * disables it: all the files are analysed.
+     *
+     * @return The fail fast threshold
+     */
+    public int getFailFastThreshold() {
+        return failFastThreshold;
+    }
+
+    /**
+     * Set the number of violations after which the analysis stops, see
+     * {@link #getFailFastThreshold()}.
+     *
+     * @param failFastThreshold
+     *            The fail fast threshold, or 0 to disable it and analyse all
+     *            the files
+     * @throws IllegalArgumentException
+     *             If the threshold is negative
+     */
+    public void setFailFastThreshold(int failFastThreshold) {
+        if (failFastThreshold < 0) {
+            throw new IllegalArgumentException("The fail fast threshold can't be negative, " + failFastThreshold
+                    + " is not valid");
+        }
+        this.failFastThreshold = failFastThreshold;
+    }
+
+    /**
+     * Get the priority of the violations which count towards the
+     * {@link #getFailFastThreshold() fail fast threshold}: only the
+     * violations of this priority or higher are counted. The default is
+     * {@link RulePriority#LOW}, which counts all the violations.
+     *
+     * @return The fail fast priority
+     */
+    public RulePriority getFailFastPriority() {
+        return failFastPriority;
+    }
+
+    /**
+     * Set the priority of the violations which count towards the
+     * {@link #getFailFastThreshold() fail fast threshold}.
+     *
+     * @param failFastPriority
+     *            The fail fast priority
+     */
+    public void setFailFastPriority(RulePriority failFastPriority) {
+        this.failFastPriority = failFastPriority;
+    }
+
     /**
      * Checks if the rule set factory compatibility feature is enabled.
      *
@@ -15,6 +15,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
@@ -37,12 +39,25 @@ public class Report implements Iterable<RuleViolation> {
      * The idea is to store the violations in a tree instead of a list, to do
      * better and faster sort and filter mechanism and to visualize the result
      * as tree. (ide plugins).
+     *
+     * The tree is only built when it's asked for, and then kept up to date.
      */
-    private final ReportTree violationTree = new ReportTree();
+    private ReportTree violationTree;
 
-    // Note that this and the above data structure are both being maintained for
-    // a bit
+    /*
+     * The violations added to this report are kept in the order in which they
+     * were added, and only sorted when they're iterated. The violations of the
+     * merged reports are kept as the sorted runs of these reports, which are
+     * never modified, and which are merged on the fly by the iterator.
+     *
+     * A report may be read by several threads, e.g. by a renderer while it's
+     * merged into another report, so the sorted violations and the tree,
+     * which are built when they're first read, are guarded by the report.
+     */
     private final List<RuleViolation> violations = new ArrayList<>();
+    private List<RuleViolation> sortedViolations = Collections.emptyList();
+    private final List<List<RuleViolation>> mergedRuns = new ArrayList<>();
+    private int mergedSize;
     private final Set<Metric> metrics = new HashSet<>();
     private final List<ThreadSafeReportListener> listeners = new ArrayList<>();
     private List<ProcessingError> errors;
@@ -51,6 +66,9 @@ public class Report implements Iterable<RuleViolation> {
     private long start;
     private long end;
     private List<SuppressedViolation> suppressedRuleViolations = new ArrayList<>();
+    private Baseline baseline;
+    /* The violations found in the baseline, by fingerprint. */
+    private Baseline.Matches baselineMatches;
 
     /**
      * Creates a new, initialized, empty report for the given file name.
@@ -66,6 +84,7 @@ public class Report implements Iterable<RuleViolation> {
 
         // overtake the listener
         report.addListeners(ctx.getReport().getListeners());
+        report.setBaseline(ctx.getReport().getBaseline());
 
         ctx.setReport(report);
         ctx.setSourceCodeFilename(fileName);
@@ -250,6 +269,17 @@ public class Report implements Iterable<RuleViolation> {
         linesToSuppress = lines;
     }
 
+    /**
+     * Marks the start of another file, when this report collects the
+     * violations of several files one after the other: the lines suppressed
+     * in the previous file, and the violations of the baseline it matched,
+     * are forgotten.
+     */
+    public void startFile() {
+        linesToSuppress = new HashMap<>();
+        baselineMatches = null;
+    }
+
     private static String keyFor(RuleViolation rv) {
 
         return StringUtils.isNotBlank(rv.getPackageName()) ? rv.getPackageName() + '.' + rv.getClassName() : "";
@@ -262,7 +292,7 @@ public class Report implements Iterable<RuleViolation> {
      */
     public Map<String, Integer> getCountSummary() {
         Map<String, Integer> summary = new HashMap<>();
-        for (RuleViolation rv : violationTree) {
+        for (RuleViolation rv : this) {
             String key = keyFor(rv);
             Integer o = summary.get(key);
             summary.put(key, o == null ? NumericConstants.ONE : o + 1);
@@ -270,8 +300,27 @@ public class Report implements Iterable<RuleViolation> {
         return summary;
     }
 
-    public ReportTree getViolationTree() {
-        return this.violationTree;
+    /**
+     * Returns the violations of this report as a tree. The tree is built
+     * the first time it's asked for, with the violations added to this
+     * report first, then the ones of the merged reports.
+     *
+     * @return the tree of the violations
+     */
+    public synchronized ReportTree getViolationTree() {
+        if (violationTree == null) {
+            ReportTree tree = new ReportTree();
+            for (RuleViolation violation : violations) {
+                tree.addRuleViolation(violation);
+            }
+            for (List<RuleViolation> run : mergedRuns) {
+                for (RuleViolation violation : run) {
+                    tree.addRuleViolation(violation);
+                }
+            }
+            violationTree = tree;
+        }
+        return violationTree;
     }
 
     /**
@@ -282,7 +331,7 @@ public class Report implements Iterable<RuleViolation> {
      */
     public Map<String, Integer> getSummary() {
         Map<String, Integer> summary = new HashMap<>();
-        for (RuleViolation rv : violations) {
+        for (RuleViolation rv : this) {
             String name = rv.getRule().getName();
             if (!summary.containsKey(name)) {
                 summary.put(name, NumericConstants.ZERO);
@@ -327,14 +376,32 @@ public class Report implements Iterable<RuleViolation> {
             return;
         }
 
-        int index = Collections.binarySearch(violations, violation, RuleViolationComparator.INSTANCE);
-        violations.add(index < 0 ? -index - 1 : index, violation);
-        violationTree.addRuleViolation(violation);
+        if (baseline != null && isInBaseline(violation)) {
+            return;
+        }
+
+        synchronized (this) {
+            violations.add(violation);
+            if (violationTree != null) {
+                violationTree.addRuleViolation(violation);
+            }
+        }
         for (ThreadSafeReportListener listener : listeners) {
             listener.ruleViolationAdded(violation);
         }
     }
 
+    /**
+     * Checks whether a violation is in the baseline, and wasn't already
+     * matched by another violation with the same fingerprint.
+     */
+    private boolean isInBaseline(RuleViolation violation) {
+        if (baselineMatches == null) {
+            baselineMatches = new Baseline.Matches(baseline);
+        }
+        return baselineMatches.match(Baseline.fingerprint(violation));
+    }
+
     /**
      * Adds a new metric to the report and notify the listeners
      *
@@ -396,12 +463,17 @@ public class Report implements Iterable<RuleViolation> {
         while (m.hasNext()) {
             addMetric(m.next());
         }
-        Iterator<RuleViolation> v = r.iterator();
-        while (v.hasNext()) {
-            RuleViolation violation = v.next();
-            int index = Collections.binarySearch(violations, violation, RuleViolationComparator.INSTANCE);
-            violations.add(index < 0 ? -index - 1 : index, violation);
-            violationTree.addRuleViolation(violation);
+        List<List<RuleViolation>> runs = r.sortedRuns();
+        synchronized (this) {
+            for (List<RuleViolation> run : runs) {
+                mergedRuns.add(run);
+                mergedSize += run.size();
+                if (violationTree != null) {
+                    for (RuleViolation violation : run) {
+                        violationTree.addRuleViolation(violation);
+                    }
+                }
+            }
         }
         Iterator<SuppressedViolation> s = r.getSuppressedRuleViolations().iterator();
         while (s.hasNext()) {
@@ -429,7 +501,7 @@ public class Report implements Iterable<RuleViolation> {
     }
 
     public boolean isEmpty() {
-        return !violations.iterator().hasNext() && !hasErrors();
+        return size() == 0 && !hasErrors();
     }
 
     /**
@@ -459,7 +531,7 @@ public class Report implements Iterable<RuleViolation> {
      *         <code>false</code> otherwise
      */
     public boolean treeIsEmpty() {
-        return !violationTree.iterator().hasNext();
+        return !getViolationTree().iterator().hasNext();
     }
 
     /**
@@ -468,12 +540,47 @@ public class Report implements Iterable<RuleViolation> {
      * @return an iterator
      */
     public Iterator<RuleViolation> treeIterator() {
-        return violationTree.iterator();
+        return getViolationTree().iterator();
     }
 
+    /**
+     * Returns an iterator over the violations, sorted with the
+     * {@link RuleViolationComparator}.
+     *
+     * @return an iterator
+     */
     @Override
     public Iterator<RuleViolation> iterator() {
-        return violations.iterator();
+        List<List<RuleViolation>> runs = sortedRuns();
+        if (runs.isEmpty()) {
+            return Collections.<RuleViolation>emptyList().iterator();
+        } else if (runs.size() == 1) {
+            return runs.get(0).iterator();
+        }
+        return new SortedRunsIterator(runs);
+    }
+
+    /**
+     * Returns the violations of this report as sorted lists, which are not
+     * modified afterwards.
+     */
+    private synchronized List<List<RuleViolation>> sortedRuns() {
+        if (sortedViolations.size() != violations.size()) {
+            List<RuleViolation> sorted = new ArrayList<>(violations);
+            Collections.sort(sorted, RuleViolationComparator.INSTANCE);
+            sortedViolations = Collections.unmodifiableList(sorted);
+        }
+
+        if (mergedRuns.isEmpty()) {
+            return sortedViolations.isEmpty() ? Collections.<List<RuleViolation>>emptyList()
+                    : Collections.singletonList(sortedViolations);
+        }
+        List<List<RuleViolation>> runs = new ArrayList<>(mergedRuns.size() + 1);
+        if (!sortedViolations.isEmpty()) {
+            runs.add(sortedViolations);
+        }
+        runs.addAll(mergedRuns);
+        return runs;
     }
 
     /**
@@ -500,7 +607,7 @@ public class Report implements Iterable<RuleViolation> {
      * @return number of violations.
      */
     public int treeSize() {
-        return violationTree.size();
+        return getViolationTree().size();
     }
 
     /**
@@ -508,8 +615,8 @@ public class Report implements Iterable<RuleViolation> {
      *
      * @return number of violations.
      */
-    public int size() {
-        return violations.size();
+    public synchronized int size() {
+        return violations.size() + mergedSize;
     }
 
     /**
@@ -535,6 +642,29 @@ public class Report implements Iterable<RuleViolation> {
         return end - start;
     }
 
+    /**
+     * Returns the baseline of this report.
+     *
+     * @return The baseline, or null if all the violations are reported
+     */
+    public Baseline getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * Sets the baseline of this report: the violations which are in the
+     * baseline aren't added to the report. The reports created for the
+     * files with {@link #createReport(RuleContext, String)} take the
+     * baseline of the report of the context.
+     *
+     * @param baseline
+     *            the baseline, or null to add all the violations
+     */
+    public void setBaseline(Baseline baseline) {
+        this.baseline = baseline;
+        this.baselineMatches = null;
+    }
+
     public List<ThreadSafeReportListener> getListeners() {
         return listeners;
     }
@@ -548,4 +678,74 @@ public class Report implements Iterable<RuleViolation> {
     public void addListeners(List<ThreadSafeReportListener> allListeners) {
         listeners.addAll(allListeners);
     }
+
+    /**
+     * Merges sorted lists of violations, by keeping the next violation of
+     * each list in a priority queue.
+     */
+    private static class SortedRunsIterator implements Iterator<RuleViolation> {
+
+        private final PriorityQueue<RunCursor> cursors;
+
+        SortedRunsIterator(List<List<RuleViolation>> runs) {
+            cursors = new PriorityQueue<>(runs.size());
+            for (int i = 0; i < runs.size(); i++) {
+                Iterator<RuleViolation> it = runs.get(i).iterator();
+                if (it.hasNext()) {
+                    cursors.add(new RunCursor(i, it));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cursors.isEmpty();
+        }
+
+        @Override
+        public RuleViolation next() {
+            RunCursor cursor = cursors.poll();
+            if (cursor == null) {
+                throw new NoSuchElementException();
+            }
+            RuleViolation violation = cursor.current;
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+            return violation;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** The position in a sorted run. Equal violations are taken from the first run first. */
+    private static class RunCursor implements Comparable<RunCursor> {
+
+        private final int run;
+        private final Iterator<RuleViolation> iterator;
+        private RuleViolation current;
+
+        RunCursor(int run, Iterator<RuleViolation> iterator) {
+            this.run = run;
+            this.iterator = iterator;
+            this.current = iterator.next();
+        }
+
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            current = iterator.next();
+            return true;
+        }
+
+        @Override
+        public int compareTo(RunCursor other) {
+            int cmp = RuleViolationComparator.INSTANCE.compare(current, other.current);
+            return cmp != 0 ? cmp : Integer.compare(run, other.run);
+        }
+    }
 }
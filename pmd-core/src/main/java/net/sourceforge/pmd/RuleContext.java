@@ -53,6 +53,7 @@ public class RuleContext {
     public RuleContext(RuleContext ruleContext) {
         this.attributes = ruleContext.attributes;
         this.report.addListeners(ruleContext.getReport().getListeners());
+        this.report.setBaseline(ruleContext.getReport().getBaseline());
     }
 
     /**
@@ -10,6 +10,7 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
@@ -27,10 +28,73 @@ public class SourceCodeProcessor {
 
     private final PMDConfiguration configuration;
 
+    /**
+     * Set once the first pass of a two-pass analysis has fed every file to
+     * the multifile analysis, so that it's not run again before applying the rules.
+     */
+    private final AtomicBoolean multifileDataCollected = new AtomicBoolean();
+
     public SourceCodeProcessor(PMDConfiguration configuration) {
         this.configuration = configuration;
     }
 
+    /**
+     * Parses the input stream and runs the multifile analysis on it, without
+     * applying any rule. This is the first pass of a two-pass analysis: once
+     * every file of the project has gone through this method, call
+     * {@link #setMultifileDataCollected(boolean)} before processing the
+     * files as usual, so that the rules see the data of the whole project.
+     *
+     * <p>The errors of the files which cannot be parsed are reported again
+     * when they are processed by {@link #processSourceCode(InputStream, RuleSets, RuleContext)},
+     * so the caller only needs to skip them.
+     *
+     * @param sourceCode
+     *            The InputStream to analyze.
+     * @param ruleSets
+     *            The collection of rules which will be applied later.
+     * @param ctx
+     *            The context of the file.
+     * @throws PMDException
+     *             if the input stream could not be read.
+     * @throws ParseException
+     *             if the input stream could not be parsed.
+     */
+    public void collectMultifileData(InputStream sourceCode, RuleSets ruleSets, RuleContext ctx) throws PMDException {
+        determineLanguage(ctx);
+        Language language = ctx.getLanguageVersion().getLanguage();
+        if (!ruleSets.applies(ctx.getSourceCodeFile()) || !ruleSets.usesMultifile(language)) {
+            return;
+        }
+
+        LanguageVersionHandler languageVersionHandler = ctx.getLanguageVersion().getLanguageVersionHandler();
+        Parser parser = PMD.parserFor(ctx.getLanguageVersion(), configuration);
+
+        try (Reader streamReader = new InputStreamReader(sourceCode, configuration.getSourceEncoding())) {
+            Node rootNode;
+            try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.PARSER)) {
+                rootNode = parser.parse(ctx.getSourceCodeFilename(), streamReader);
+            }
+            resolveQualifiedNames(rootNode, languageVersionHandler);
+            symbolFacade(rootNode, languageVersionHandler);
+            try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.MULTIFILE_ANALYSIS)) {
+                languageVersionHandler.getMultifileFacade().start(rootNode);
+            }
+        } catch (IOException e) {
+            throw new PMDException("IO exception: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Marks whether the multifile analysis has already been run on all the
+     * files, by {@link #collectMultifileData(InputStream, RuleSets, RuleContext)}.
+     *
+     * @param multifileDataCollected Whether the first pass is complete
+     */
+    public void setMultifileDataCollected(boolean multifileDataCollected) {
+        this.multifileDataCollected.set(multifileDataCollected);
+    }
+
     /**
      * Processes the input stream against a rule set using the given input
      * encoding.
@@ -159,7 +223,7 @@ public class SourceCodeProcessor {
     private void usesMultifile(Node rootNode, LanguageVersionHandler languageVersionHandler, RuleSets ruleSets,
                                Language language) {
 
-        if (ruleSets.usesMultifile(language)) {
+        if (!multifileDataCollected.get() && ruleSets.usesMultifile(language)) {
             try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.MULTIFILE_ANALYSIS)) {
                 languageVersionHandler.getMultifileFacade().start(rootNode);
             }
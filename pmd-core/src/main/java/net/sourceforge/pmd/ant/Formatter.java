@@ -22,11 +22,14 @@ import java.util.List;
 import java.util.Properties;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.NullWriter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.types.Parameter;
 
 import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.renderers.BinaryRenderer;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.renderers.RendererFactory;
 
@@ -97,13 +100,21 @@ public class Formatter {
         }
 
         try {
-            if (toConsole) {
-                writer = new BufferedWriter(new OutputStreamWriter(System.out, charset));
-            }
-            if (toFile != null) {
-                writer = getToFileWriter(baseDir, toFile, charset);
-            }
             renderer = createRenderer();
+            if (renderer instanceof BinaryRenderer) {
+                // the binary report is written to a stream, not to the writer
+                OutputStream output = toFile != null ? new FileOutputStream(getToFile(baseDir, toFile))
+                        : new CloseShieldOutputStream(System.out);
+                ((BinaryRenderer) renderer).setOutputStream(output);
+                writer = NullWriter.NULL_WRITER;
+            } else {
+                if (toConsole) {
+                    writer = new BufferedWriter(new OutputStreamWriter(System.out, charset));
+                }
+                if (toFile != null) {
+                    writer = getToFileWriter(baseDir, toFile, charset);
+                }
+            }
             renderer.setWriter(writer);
             renderer.start();
         } catch (IOException ioe) {
@@ -115,6 +126,10 @@ public class Formatter {
         try {
             renderer.renderFileReport(errorReport);
             renderer.end();
+            if (renderer instanceof BinaryRenderer) {
+                // closes the stream of the binary report
+                renderer.flush();
+            }
             if (toConsole) {
                 writer.flush();
             } else {
@@ -170,13 +185,15 @@ public class Formatter {
         return properties;
     }
 
-    private static Writer getToFileWriter(String baseDir, File toFile, Charset charset) throws IOException {
-        final File file;
+    private static File getToFile(String baseDir, File toFile) {
         if (toFile.isAbsolute()) {
-            file = toFile;
-        } else {
-            file = new File(baseDir + System.getProperty("file.separator") + toFile.getPath());
+            return toFile;
         }
+        return new File(baseDir + System.getProperty("file.separator") + toFile.getPath());
+    }
+
+    private static Writer getToFileWriter(String baseDir, File toFile, Charset charset) throws IOException {
+        final File file = getToFile(baseDir, toFile);
 
         OutputStream output = null;
         Writer writer = null;
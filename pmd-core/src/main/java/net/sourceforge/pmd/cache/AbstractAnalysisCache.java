@@ -82,6 +82,35 @@ public abstract class AbstractAnalysisCache implements AnalysisCache {
         return result;
     }
 
+    /**
+     * Checks whether the analysis of a file is likely to find violations:
+     * the file is new or was modified since the previous results were
+     * stored, or the previous analysis found violations in it or failed.
+     * Only the metadata of the file is read, not its content, so that all
+     * the files can be checked before the analysis starts. Unlike
+     * {@link #isUpToDate(File)}, this doesn't prepare the cache for the
+     * analysis of the file.
+     *
+     * @param sourceFile The file to check in the cache
+     * @return True if the file may have violations
+     */
+    public boolean isLikelyToHaveViolations(final File sourceFile) {
+        final AnalysisResult analysisResult = fileResultsCache.get(sourceFile.getPath());
+        return analysisResult == null || !analysisResult.getViolations().isEmpty()
+                || sourceFile.lastModified() > getResultsTimestamp();
+    }
+
+    /**
+     * Returns the time at which the cached results were stored, in
+     * milliseconds since the epoch.
+     *
+     * @return The time of the cached results, or {@link Long#MAX_VALUE} if
+     *         it's unknown, in which case no file is considered modified
+     */
+    protected long getResultsTimestamp() {
+        return Long.MAX_VALUE;
+    }
+
     @Override
     public List<RuleViolation> getCachedViolations(final File sourceFile) {
         final AnalysisResult analysisResult = fileResultsCache.get(sourceFile.getPath());
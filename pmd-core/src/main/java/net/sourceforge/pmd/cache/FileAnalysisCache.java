@@ -26,6 +26,7 @@ import net.sourceforge.pmd.RuleViolation;
 public class FileAnalysisCache extends AbstractAnalysisCache {
 
     private final File cacheFile;
+    private long resultsTimestamp = Long.MAX_VALUE;
     
     /**
      * Creates a new cache backed by the given file, and attempts to load pre-existing data from it.
@@ -71,6 +72,7 @@ public class FileAnalysisCache extends AbstractAnalysisCache {
 
                         fileResultsCache.put(fileName, new AnalysisResult(checksum, violations));
                     }
+                    resultsTimestamp = cacheFile.lastModified();
 
                     LOG.info("Analysis cache loaded");
                 } else {
@@ -84,6 +86,11 @@ public class FileAnalysisCache extends AbstractAnalysisCache {
         }
     }
 
+    @Override
+    protected long getResultsTimestamp() {
+        return resultsTimestamp;
+    }
+
     @Override
     public void persist() {
         // Create directories missing along the way
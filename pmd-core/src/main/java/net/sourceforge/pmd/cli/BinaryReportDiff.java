@@ -0,0 +1,151 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.renderers.BinaryRenderer;
+import net.sourceforge.pmd.renderers.BinaryReportReader;
+import net.sourceforge.pmd.renderers.BinaryReportReader.Violation;
+
+/**
+ * Compares two reports written by the {@link BinaryRenderer}, and prints the
+ * violations which were removed, prefixed with {@code -}, and those which
+ * were added, prefixed with {@code +}.
+ *
+ * <p>The reports are compared file by file, walking their file indexes in
+ * order, so that only the violations of one file of each report are in
+ * memory at a time. Two violations are the same if they have the same rule,
+ * description, and package, class, method and variable names: their
+ * positions are ignored, so that the violations which only moved aren't
+ * reported.
+ *
+ * <p>The exit status is 0 if the reports have the same violations, and
+ * {@link PMDCommandLineInterface#VIOLATIONS_FOUND} otherwise.
+ *
+ * @since 6.6.0
+ */
+public final class BinaryReportDiff {
+
+    private BinaryReportDiff() {
+    }
+
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: reportdiff <old report> <new report>");
+            PMDCommandLineInterface.setStatusCodeOrExit(PMDCommandLineInterface.ERROR_STATUS);
+            return;
+        }
+
+        int status;
+        try (BinaryReportReader oldReport = new BinaryReportReader(new File(args[0]));
+             BinaryReportReader newReport = new BinaryReportReader(new File(args[1]))) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+            int differences = diff(oldReport, newReport, out);
+            out.flush();
+            status = differences == 0 ? 0 : PMDCommandLineInterface.VIOLATIONS_FOUND;
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            status = PMDCommandLineInterface.ERROR_STATUS;
+        }
+        PMDCommandLineInterface.setStatusCodeOrExit(status);
+    }
+
+
+    /**
+     * Writes the differences between two reports.
+     *
+     * @param oldReport The old report
+     * @param newReport The new report
+     * @param writer    The writer to which the differences are written
+     *
+     * @return The number of removed and added violations
+     *
+     * @throws IOException If a report can't be read, or the differences written
+     */
+    public static int diff(BinaryReportReader oldReport, BinaryReportReader newReport, Writer writer)
+            throws IOException {
+        List<String> oldFiles = oldReport.getFilenames();
+        List<String> newFiles = newReport.getFilenames();
+        int differences = 0;
+        int i = 0;
+        int j = 0;
+        while (i < oldFiles.size() || j < newFiles.size()) {
+            int cmp;
+            if (i == oldFiles.size()) {
+                cmp = 1;
+            } else if (j == newFiles.size()) {
+                cmp = -1;
+            } else {
+                cmp = oldFiles.get(i).compareTo(newFiles.get(j));
+            }
+
+            List<Violation> removed = cmp <= 0 ? oldReport.readViolations(oldFiles.get(i++))
+                    : new ArrayList<Violation>();
+            List<Violation> added = cmp >= 0 ? newReport.readViolations(newFiles.get(j++))
+                    : new ArrayList<Violation>();
+            differences += diffFile(removed, added, writer);
+        }
+        return differences;
+    }
+
+
+    private static int diffFile(List<Violation> oldViolations, List<Violation> newViolations, Writer writer)
+            throws IOException {
+        Map<List<String>, Deque<Violation>> unmatched = new HashMap<>();
+        for (Violation v : oldViolations) {
+            List<String> key = key(v);
+            Deque<Violation> same = unmatched.get(key);
+            if (same == null) {
+                same = new ArrayDeque<>();
+                unmatched.put(key, same);
+            }
+            same.add(v);
+        }
+
+        List<Violation> added = new ArrayList<>();
+        for (Violation v : newViolations) {
+            Deque<Violation> same = unmatched.get(key(v));
+            if (same == null || same.isEmpty()) {
+                added.add(v);
+            } else {
+                same.poll();
+            }
+        }
+
+        int differences = added.size();
+        for (Violation v : oldViolations) {
+            Deque<Violation> same = unmatched.get(key(v));
+            if (same.peek() == v) {
+                same.poll();
+                writer.write("- " + v + PMD.EOL);
+                differences++;
+            }
+        }
+        for (Violation v : added) {
+            writer.write("+ " + v + PMD.EOL);
+        }
+        return differences;
+    }
+
+
+    private static List<String> key(Violation v) {
+        return Arrays.asList(v.getRuleSetName(), v.getRuleName(), v.getDescription(), v.getPackageName(),
+                             v.getClassName(), v.getMethodName(), v.getVariableName());
+    }
+}
@@ -7,12 +7,15 @@ package net.sourceforge.pmd.cli;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
 
 import net.sourceforge.pmd.PMDConfiguration;
 import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.renderers.ShardedRenderer;
 
 import com.beust.jcommander.IStringConverter;
 import com.beust.jcommander.IValueValidator;
@@ -22,8 +25,7 @@ import com.beust.jcommander.validators.PositiveInteger;
 
 public class PMDParameters {
 
-    @Parameter(names = { "-rulesets", "-R" }, description = "Comma separated list of ruleset names to use.",
-            required = true)
+    @Parameter(names = { "-rulesets", "-R" }, description = "Comma separated list of ruleset names to use.")
     private String rulesets;
 
     @Parameter(names = { "-uri", "-u" }, description = "Database URI for sources.")
@@ -65,6 +67,39 @@ public class PMDParameters {
     @Parameter(names = "-showsuppressed", description = "Report should show suppressed rule violations.")
     private boolean showsuppressed = false;
 
+    @Parameter(names = "-asyncrendering", description = "Renders the report on a dedicated thread.")
+    private boolean asyncrendering = false;
+
+    @Parameter(names = "-baseline",
+            description = "Specifies a binary report of a previous analysis; only the violations which aren't in it are reported.")
+    private String baseline = null;
+
+    @Parameter(names = "-failfast",
+            description = "Stops the analysis once this number of violations were found, or a file couldn't be analysed. The files which had violations or changed, according to the cache, are analysed first. 0 disables it.",
+            validateWith = PositiveInteger.class)
+    private int failFast = 0;
+
+    @Parameter(names = "-failfastpriority",
+            description = "Only counts the violations of this priority or higher for -failfast. "
+                    + "Valid values are integers between 1 and 5 (inclusive), with 5 being the lowest priority.",
+            validateValueWith = RulePriorityValidator.class)
+    private int failFastPriority = RulePriority.LOW.getPriority();
+
+    @Parameter(names = "-reportbatchsize",
+            description = "Collects the violations of this number of files in the same report on each thread, before rendering it. By default, each file has its own report.")
+    private int reportBatchSize = 0;
+
+    @Parameter(names = "-reportshards",
+            description = "Splits the report in a file per input path (root), per directory directly in an input path (module), "
+                    + "or per directory of the files (package). The report file is then the directory of the shards.",
+            validateValueWith = ShardByValidator.class)
+    private String reportShards;
+
+    @Parameter(names = "-exportmetrics",
+            description = "Exports the metrics of every class and operation of the sources of the language (see -language) "
+                    + "to the report file as a CSV table, instead of applying rulesets.")
+    private boolean exportMetrics = false;
+
     @Parameter(names = "-suppressmarker",
             description = "Specifies the string that marks the a line which PMD should ignore; default is NOPMD.")
     private String suppressmarker = "NOPMD";
@@ -138,6 +173,19 @@ public class PMDParameters {
         }
     }
 
+    // this has to be a public static class, so that JCommander can use it!
+    public static class ShardByValidator implements IValueValidator<String> {
+
+        @Override
+        public void validate(String name, String value) throws ParameterException {
+            try {
+                ShardedRenderer.ShardBy.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ParameterException("Report shards can only be root, module or package, " + value + " is not valid");
+            }
+        }
+    }
+
     /** @deprecated Will be removed in 7.0.0 */
     @Deprecated
     public static class RulePriorityConverter implements IStringConverter<RulePriority> {
@@ -170,6 +218,9 @@ public class PMDParameters {
             throw new IllegalArgumentException(
                     "Please provide a parameter for source root directory (-dir or -d), database URI (-uri or -u), or file list path (-filelist).");
         }
+        if (null == this.getRulesets() && !this.isExportMetrics()) {
+            throw new IllegalArgumentException("Please provide a parameter for rulesets (-rulesets or -R).");
+        }
         PMDConfiguration configuration = new PMDConfiguration();
         configuration.setInputPaths(this.getSourceDir());
         configuration.setInputFilePath(this.getFileListPath());
@@ -184,6 +235,12 @@ public class PMDParameters {
         configuration.setRuleSets(this.getRulesets());
         configuration.setRuleSetFactoryCompatibilityEnabled(!this.noRuleSetCompatibility);
         configuration.setShowSuppressedViolations(this.isShowsuppressed());
+        configuration.setAsyncRendering(this.isAsyncrendering());
+        configuration.setBaselineLocation(this.getBaseline());
+        configuration.setFailFastThreshold(this.getFailFast());
+        configuration.setFailFastPriority(this.getFailFastPriority());
+        configuration.setReportBatchSize(this.getReportBatchSize());
+        configuration.setReportShards(this.getReportShards());
         configuration.setSourceEncoding(this.getEncoding());
         configuration.setStressTest(this.isStress());
         configuration.setSuppressMarker(this.getSuppressmarker());
@@ -197,6 +254,13 @@ public class PMDParameters {
         if (languageVersion != null) {
             configuration.getLanguageVersionDiscoverer().setDefaultLanguageVersion(languageVersion);
         }
+        if (this.isExportMetrics()) {
+            Language language = LanguageRegistry.findLanguageByTerseName(this.getLanguage());
+            if (language == null) {
+                throw new IllegalArgumentException("Unknown language " + this.getLanguage() + " for -exportmetrics.");
+            }
+            configuration.setMetricsExportLanguage(language);
+        }
         try {
             configuration.prependClasspath(this.getAuxclasspath());
         } catch (IOException e) {
@@ -252,6 +316,34 @@ public class PMDParameters {
         return showsuppressed;
     }
 
+    public boolean isAsyncrendering() {
+        return asyncrendering;
+    }
+
+    public String getBaseline() {
+        return baseline;
+    }
+
+    public boolean isExportMetrics() {
+        return exportMetrics;
+    }
+
+    public int getFailFast() {
+        return failFast;
+    }
+
+    public RulePriority getFailFastPriority() {
+        return RulePriority.valueOf(failFastPriority);
+    }
+
+    public int getReportBatchSize() {
+        return reportBatchSize;
+    }
+
+    public ShardedRenderer.ShardBy getReportShards() {
+        return reportShards == null ? null : ShardedRenderer.ShardBy.valueOf(reportShards.toUpperCase(Locale.ROOT));
+    }
+
     public String getSuppressmarker() {
         return suppressmarker;
     }
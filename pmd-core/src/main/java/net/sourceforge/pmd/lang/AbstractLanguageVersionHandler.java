@@ -7,6 +7,7 @@ package net.sourceforge.pmd.lang;
 import java.io.Writer;
 
 import net.sourceforge.pmd.lang.dfa.DFAGraphRule;
+import net.sourceforge.pmd.lang.metrics.MetricsExporter;
 
 /**
  * This is a generic implementation of the LanguageVersionHandler interface.
@@ -67,6 +68,20 @@ public abstract class AbstractLanguageVersionHandler implements LanguageVersionH
     }
 
 
+    /**
+     * Gets an exporter of the metrics of the classes and operations of this
+     * language. This isn't part of {@link LanguageVersionHandler}, so that
+     * its other implementations don't have to provide it.
+     *
+     * @param writer The destination of the table
+     *
+     * @return The exporter, or null if the language has no metrics
+     */
+    public MetricsExporter<?, ?> getMetricsExporter(Writer writer) {
+        return null;
+    }
+
+
     @Override
     public DFAGraphRule getDFAGraphRule() {
         return null;
@@ -8,13 +8,14 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Logger;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.apache.commons.lang3.ArrayUtils;
-import org.jaxen.BaseXPath;
 import org.jaxen.JaxenException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -22,6 +23,7 @@ import org.w3c.dom.Element;
 import net.sourceforge.pmd.PMDVersion;
 import net.sourceforge.pmd.lang.ast.xpath.Attribute;
 import net.sourceforge.pmd.lang.ast.xpath.AttributeAxisIterator;
+import net.sourceforge.pmd.lang.ast.xpath.CompiledXPath;
 import net.sourceforge.pmd.lang.ast.xpath.DocumentNavigator;
 import net.sourceforge.pmd.lang.dfa.DataFlowNode;
 
@@ -33,6 +35,13 @@ public abstract class AbstractNode implements Node {
 
     private static final Logger LOG = Logger.getLogger(AbstractNode.class.getName());
 
+    /**
+     * Expressions passed to {@link #findChildNodesWithXPath(String)}, which are usually
+     * constants. Cleared when it grows too big, e.g. if the callers build their queries.
+     */
+    private static final ConcurrentMap<String, CompiledXPath> XPATH_CACHE = new ConcurrentHashMap<>();
+    private static final int XPATH_CACHE_SIZE = 512;
+
 
     protected Node parent;
     protected Node[] children;
@@ -99,6 +108,24 @@ public abstract class AbstractNode implements Node {
         child.jjtSetChildIndex(index);
     }
 
+    /**
+     * Replaces all the children of this node, and sets their index and
+     * parent. Tree builders which find the children from left to right
+     * should collect them and use this, because {@link #jjtAddChild(Node, int)}
+     * reallocates the array each time it grows.
+     *
+     * @param newChildren The children, in order. The array is kept by this node
+     *
+     * @see ChildrenBuilder
+     */
+    public void setChildren(Node... newChildren) {
+        children = newChildren.length == 0 ? null : newChildren;
+        for (int i = 0; i < newChildren.length; i++) {
+            newChildren[i].jjtSetChildIndex(i);
+            newChildren[i].jjtSetParent(this);
+        }
+    }
+
     @Override
     public void jjtSetChildIndex(int index) {
         childIndex = index;
@@ -187,7 +214,9 @@ public abstract class AbstractNode implements Node {
     public DataFlowNode getDataFlowNode() {
         if (this.dataFlowNode == null) {
             if (this.parent != null) {
-                return parent.getDataFlowNode();
+                DataFlowNode parentNode = parent.getDataFlowNode();
+                // the graph of an ancestor may be built lazily, and include this node
+                return this.dataFlowNode != null ? this.dataFlowNode : parentNode;
             }
             return null; // TODO wise?
         }
@@ -418,19 +447,33 @@ public abstract class AbstractNode implements Node {
 
 
     @Override
-    @SuppressWarnings("unchecked")
     public List<Node> findChildNodesWithXPath(String xpathString) throws JaxenException {
-        return new BaseXPath(xpathString, new DocumentNavigator()).selectNodes(this);
+        return compileXPath(xpathString).selectNodes(this);
     }
 
 
     @Override
     public boolean hasDescendantMatchingXPath(String xpathString) {
+        CompiledXPath xpath;
         try {
-            return !findChildNodesWithXPath(xpathString).isEmpty();
+            xpath = compileXPath(xpathString);
         } catch (JaxenException e) {
             throw new RuntimeException("XPath expression " + xpathString + " failed: " + e.getLocalizedMessage(), e);
         }
+        return xpath.hasMatch(this);
+    }
+
+
+    private static CompiledXPath compileXPath(String xpathString) throws JaxenException {
+        CompiledXPath xpath = XPATH_CACHE.get(xpathString);
+        if (xpath == null) {
+            xpath = new CompiledXPath(xpathString);
+            if (XPATH_CACHE.size() >= XPATH_CACHE_SIZE) {
+                XPATH_CACHE.clear();
+            }
+            XPATH_CACHE.put(xpathString, xpath);
+        }
+        return xpath;
     }
 
 
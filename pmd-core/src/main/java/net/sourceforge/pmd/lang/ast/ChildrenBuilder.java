@@ -0,0 +1,70 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Collects the children of the nodes being built by a tree builder which
+ * creates the nodes depth-first and the children from left to right. The
+ * children of a node are buffered in a list until the node is closed, and
+ * then set at once with {@link AbstractNode#setChildren(Node...)}, so that
+ * building a node with n children takes O(n) instead of O(n²) with
+ * {@link Node#jjtAddChild(Node, int)}.
+ *
+ * <pre>
+ * children.add(node); // to the current node, if any
+ * children.open(node);
+ * // build the children of the node
+ * children.close();
+ * </pre>
+ *
+ * @since 6.6.0
+ */
+public class ChildrenBuilder {
+
+    private final Deque<AbstractNode> openNodes = new ArrayDeque<>();
+    private final Deque<List<Node>> openChildren = new ArrayDeque<>();
+
+
+    /**
+     * Starts collecting the children of a node. The node is the current one
+     * until it's closed.
+     *
+     * @param node The node
+     */
+    public void open(AbstractNode node) {
+        openNodes.push(node);
+        openChildren.push(new ArrayList<Node>());
+    }
+
+
+    /**
+     * Appends a child to the current node, and sets its parent. Does
+     * nothing if no node is open, e.g. for the root.
+     *
+     * @param child The child
+     */
+    public void add(Node child) {
+        if (openNodes.isEmpty()) {
+            return;
+        }
+        openChildren.peek().add(child);
+        child.jjtSetParent(openNodes.peek());
+    }
+
+
+    /**
+     * Sets the children collected for the current node, and makes its
+     * parent the current node again.
+     */
+    public void close() {
+        List<Node> children = openChildren.pop();
+        openNodes.pop().setChildren(children.toArray(new Node[0]));
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast;
+
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A {@link JavaCharStream} which is meant to be reused for several files
+ * by the same thread, e.g. through a {@link ThreadLocal}. Its buffers are
+ * kept between files with {@link #reset(Reader)}, and short token images
+ * (mostly identifiers and literals) are shared through a string table
+ * instead of being allocated for every token.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class ReusableJavaCharStream extends JavaCharStream {
+
+    /** Images longer than that (e.g. comments) are never shared. */
+    private static final int MAX_SHARED_IMAGE_LENGTH = 64;
+
+    private static final int DEFAULT_BUFFER_SIZE = 4096;
+
+    /** Capacity of the string table, must be a power of two. */
+    private static final int TABLE_SIZE = 1 << 13;
+
+    private final String[] images = new String[TABLE_SIZE];
+    private int imageCount;
+
+    public ReusableJavaCharStream() {
+        super((Reader) null);
+    }
+
+    /**
+     * Prepares this stream for reading a new file. The internal buffers
+     * and the string table are kept.
+     *
+     * @param source the new source
+     */
+    public void reset(Reader source) {
+        ReInit(source, 1, 1, buffer == null ? DEFAULT_BUFFER_SIZE : buffer.length);
+    }
+
+    @Override
+    public String GetImage() {
+        int length = bufpos - tokenBegin + 1;
+        if (bufpos < tokenBegin || length > MAX_SHARED_IMAGE_LENGTH) {
+            return super.GetImage();
+        }
+
+        int hash = 0;
+        for (int i = tokenBegin; i <= bufpos; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+
+        int mask = TABLE_SIZE - 1;
+        int index = (hash ^ (hash >>> 16)) & mask;
+        String candidate = images[index];
+        while (candidate != null) {
+            if (candidate.hashCode() == hash && regionMatches(candidate, length)) {
+                return candidate;
+            }
+            index = (index + 1) & mask;
+            candidate = images[index];
+        }
+
+        String image = new String(buffer, tokenBegin, length);
+        if (imageCount >= TABLE_SIZE / 2) {
+            // keep the probe sequences short, the table is filled again quickly
+            Arrays.fill(images, null);
+            imageCount = 0;
+            index = (hash ^ (hash >>> 16)) & mask;
+        }
+        images[index] = image;
+        imageCount++;
+        return image;
+    }
+
+    private boolean regionMatches(String candidate, int length) {
+        if (candidate.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (candidate.charAt(i) != buffer[tokenBegin + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
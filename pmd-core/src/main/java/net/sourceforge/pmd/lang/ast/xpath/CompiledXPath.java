@@ -0,0 +1,179 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast.xpath;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.jaxen.BaseXPath;
+import org.jaxen.Context;
+import org.jaxen.ContextSupport;
+import org.jaxen.FunctionContext;
+import org.jaxen.JaxenException;
+import org.jaxen.NamespaceContext;
+import org.jaxen.SimpleVariableContext;
+
+import net.sourceforge.pmd.lang.ast.Node;
+
+/**
+ * An XPath expression which is parsed once and can then be evaluated on any
+ * node, from any thread. Instead of being concatenated into the expression,
+ * values that change from one evaluation to the other are referenced as
+ * variables (e.g. {@code Name[@Image=$name]}), and bound when evaluating
+ * the expression. This lets Java rules keep their queries in constants:
+ *
+ * <pre>
+ * private static final CompiledXPath NAME_QUERY = CompiledXPath.compile("./PrimaryPrefix/Name[@Image=$name]");
+ *
+ * List&lt;Node&gt; names = NAME_QUERY.selectNodes(node, "name", varName);
+ * </pre>
+ */
+public final class CompiledXPath {
+
+    private final String expression;
+    private final QueryXPath xpath;
+    private final NamespaceContext namespaceContext;
+    private final FunctionContext functionContext;
+
+    /**
+     * Parses an XPath expression.
+     *
+     * @param expression The expression
+     *
+     * @throws JaxenException If the expression is incorrect
+     */
+    public CompiledXPath(String expression) throws JaxenException {
+        this.expression = expression;
+        this.xpath = new QueryXPath(expression);
+        // the contexts are created lazily by jaxen, so not safely
+        this.namespaceContext = xpath.getNamespaceContext();
+        this.functionContext = xpath.getFunctionContext();
+    }
+
+    /**
+     * Parses an XPath expression which is known to be correct, typically a
+     * constant.
+     *
+     * @param expression The expression
+     *
+     * @return The compiled expression
+     *
+     * @throws IllegalArgumentException If the expression is incorrect
+     */
+    public static CompiledXPath compile(String expression) {
+        try {
+            return new CompiledXPath(expression);
+        } catch (JaxenException e) {
+            throw new IllegalArgumentException("Invalid XPath expression " + expression, e);
+        }
+    }
+
+    /**
+     * Returns all the nodes matched by this expression, using the node as
+     * the context node.
+     *
+     * @param node The context node
+     *
+     * @return The matching nodes, or an empty list
+     */
+    public List<Node> selectNodes(Node node) {
+        return selectNodes(node, Collections.<String, Object>emptyMap());
+    }
+
+    /**
+     * Returns all the nodes matched by this expression, using the node as
+     * the context node and binding one variable.
+     *
+     * @param node  The context node
+     * @param name  The name of the variable, without the {@code $}
+     * @param value The value of the variable
+     *
+     * @return The matching nodes, or an empty list
+     */
+    public List<Node> selectNodes(Node node, String name, Object value) {
+        return selectNodes(node, Collections.singletonMap(name, value));
+    }
+
+    /**
+     * Returns all the nodes matched by this expression, using the node as
+     * the context node and binding the given variables.
+     *
+     * @param node      The context node
+     * @param variables The values of the variables, by name
+     *
+     * @return The matching nodes, or an empty list
+     */
+    @SuppressWarnings("unchecked")
+    public List<Node> selectNodes(Node node, Map<String, ?> variables) {
+        try {
+            return xpath.selectNodesForContext(newContext(node, variables));
+        } catch (JaxenException e) {
+            throw new RuntimeException("XPath expression " + expression + " failed: " + e.getLocalizedMessage(), e);
+        }
+    }
+
+    /**
+     * Checks whether this expression matches at least one node, using the
+     * node as the context node.
+     *
+     * @param node The context node
+     *
+     * @return true if there is a match
+     */
+    public boolean hasMatch(Node node) {
+        return !selectNodes(node).isEmpty();
+    }
+
+    /**
+     * Checks whether this expression matches at least one node, using the
+     * node as the context node and binding one variable.
+     *
+     * @param node  The context node
+     * @param name  The name of the variable, without the {@code $}
+     * @param value The value of the variable
+     *
+     * @return true if there is a match
+     */
+    public boolean hasMatch(Node node, String name, Object value) {
+        return !selectNodes(node, name, value).isEmpty();
+    }
+
+    private Context newContext(Node node, Map<String, ?> variables) {
+        SimpleVariableContext variableContext = new SimpleVariableContext();
+        for (Entry<String, ?> variable : variables.entrySet()) {
+            variableContext.setVariableValue(variable.getKey(), variable.getValue());
+        }
+
+        ContextSupport support = new ContextSupport(namespaceContext, functionContext, variableContext,
+                xpath.getNavigator());
+        Context context = new Context(support);
+        context.setNodeSet(Collections.singletonList(node));
+        return context;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /** Exposes the evaluation with an explicit context, which is otherwise protected. */
+    private static final class QueryXPath extends BaseXPath {
+
+        private static final long serialVersionUID = 1L;
+
+        QueryXPath(String expression) throws JaxenException {
+            super(expression, new DocumentNavigator());
+        }
+
+        // makes the method visible in this package
+        @Override
+        @SuppressWarnings("PMD.UselessOverridingMethod")
+        protected List selectNodesForContext(Context context) throws JaxenException {
+            return super.selectNodesForContext(context);
+        }
+    }
+}
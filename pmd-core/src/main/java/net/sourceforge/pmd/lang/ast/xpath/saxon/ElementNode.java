@@ -98,7 +98,8 @@ public class ElementNode extends AbstractNodeInfo {
 
     @Override
     public int compareOrder(NodeInfo other) {
-        return Integer.signum(this.node.jjtGetId() - ((ElementNode) other).node.jjtGetId());
+        // the ids are given in document order
+        return Integer.signum(this.id - ((ElementNode) other).id);
     }
 
     @SuppressWarnings("PMD.MissingBreakInSwitch")
@@ -0,0 +1,211 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.dfa.pathfinder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.dfa.VariableAccess;
+
+/**
+ * Finds the pairs of accesses to a variable which directly follow each
+ * other on at least one path of the data flow graph of a method. This is
+ * what {@link DAAPathFinder} finds by enumerating the paths, but this is
+ * computed with a worklist over the graph, like reaching definitions, so
+ * that the cost is not exponential in the number of branches and loops are
+ * followed entirely.
+ *
+ * <p>Each access of the method is a site. The analysis computes the sites
+ * which may be the last access to their variable when entering each node.
+ * Once that's stable, the nodes are scanned once and the pairs are passed
+ * to the {@link AccessPairHandler}.
+ *
+ * @since 6.6.0
+ */
+public class ReachingAccessAnalysis {
+
+    private static final Logger LOG = Logger.getLogger(ReachingAccessAnalysis.class.getName());
+
+    /**
+     * Number of times each node may be evaluated on average before the
+     * analysis gives up. The analysis usually converges in a few passes.
+     */
+    private static final int DEFAULT_VISITS_PER_NODE = 50;
+
+    private final List<DataFlowNode> flow;
+    private final int maxVisits;
+
+    private final Map<DataFlowNode, Integer> indices = new IdentityHashMap<>();
+    /** The sites of a node are numbered consecutively, this is the first one of each node. */
+    private int[] firstSites;
+    private final List<DataFlowNode> siteNodes = new ArrayList<>();
+    private final List<VariableAccess> siteAccesses = new ArrayList<>();
+    private final Map<String, BitSet> sitesByVariable = new HashMap<>();
+
+    /**
+     * Creates an analysis with the default budget.
+     *
+     * @param rootNode The start node of the method
+     */
+    public ReachingAccessAnalysis(DataFlowNode rootNode) {
+        this(rootNode, DEFAULT_VISITS_PER_NODE * rootNode.getFlow().size());
+    }
+
+    /**
+     * Creates an analysis.
+     *
+     * @param rootNode  The start node of the method
+     * @param maxVisits The maximum number of node evaluations, after which
+     *                  the analysis is abandoned
+     */
+    public ReachingAccessAnalysis(DataFlowNode rootNode, int maxVisits) {
+        this.flow = rootNode.getFlow();
+        this.maxVisits = maxVisits;
+    }
+
+    /**
+     * Runs the analysis and reports the pairs of consecutive accesses to
+     * the handler. If the budget is exhausted, the analysis stops and only
+     * reports the pairs found so far: the states only grow until they're
+     * stable, so these pairs are a subset of the complete ones.
+     *
+     * @param handler The handler
+     *
+     * @return false if the analysis was stopped because of its budget
+     */
+    public boolean run(AccessPairHandler handler) {
+        indexSites();
+
+        BitSet[] in = new BitSet[flow.size()];
+        BitSet[] out = new BitSet[flow.size()];
+        for (int i = 0; i < in.length; i++) {
+            in[i] = new BitSet();
+        }
+
+        // only the nodes reachable from the start are visited, out is null for the others
+        Deque<DataFlowNode> worklist = new ArrayDeque<>();
+        boolean[] queued = new boolean[flow.size()];
+        if (!flow.isEmpty()) {
+            worklist.add(flow.get(0));
+            queued[0] = true;
+        }
+
+        int visits = 0;
+        boolean complete = true;
+        while (!worklist.isEmpty()) {
+            visits++;
+            if (visits > maxVisits) {
+                LOG.warning("The data flow analysis of the method at line " + flow.get(0).getLine()
+                        + " was stopped after " + maxVisits + " evaluations, some anomalies may be missed");
+                complete = false;
+                break;
+            }
+
+            DataFlowNode node = worklist.removeFirst();
+            int index = indices.get(node);
+            queued[index] = false;
+
+            BitSet state = (BitSet) in[index].clone();
+            transfer(node, index, state, null);
+
+            if (!state.equals(out[index])) {
+                out[index] = state;
+                for (DataFlowNode child : node.getChildren()) {
+                    Integer childIndex = indices.get(child);
+                    if (childIndex == null) {
+                        continue;
+                    }
+                    in[childIndex].or(state);
+                    if (!queued[childIndex]) {
+                        queued[childIndex] = true;
+                        worklist.addLast(child);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < flow.size(); i++) {
+            if (out[i] != null) {
+                transfer(flow.get(i), i, in[i], handler);
+            }
+        }
+        return complete;
+    }
+
+    private void indexSites() {
+        firstSites = new int[flow.size()];
+        for (int i = 0; i < flow.size(); i++) {
+            DataFlowNode node = flow.get(i);
+            indices.put(node, i);
+            firstSites[i] = siteNodes.size();
+            if (node.getVariableAccess() == null) {
+                continue;
+            }
+            for (VariableAccess access : node.getVariableAccess()) {
+                BitSet sites = sitesByVariable.get(access.getVariableName());
+                if (sites == null) {
+                    sites = new BitSet();
+                    sitesByVariable.put(access.getVariableName(), sites);
+                }
+                sites.set(siteNodes.size());
+                siteNodes.add(node);
+                siteAccesses.add(access);
+            }
+        }
+    }
+
+    /**
+     * Applies the accesses of the node to the state, which then holds the
+     * last accesses when leaving the node. If the handler is not null, it's
+     * given the pairs of accesses found along the way.
+     */
+    private void transfer(DataFlowNode node, int index, BitSet state, AccessPairHandler handler) {
+        if (node.getVariableAccess() == null) {
+            return;
+        }
+
+        int site = firstSites[index];
+        for (VariableAccess access : node.getVariableAccess()) {
+            BitSet sites = sitesByVariable.get(access.getVariableName());
+
+            if (handler != null) {
+                for (int prev = sites.nextSetBit(0); prev >= 0; prev = sites.nextSetBit(prev + 1)) {
+                    if (state.get(prev)) {
+                        handler.consecutiveAccesses(siteNodes.get(prev), siteAccesses.get(prev), node, access);
+                    }
+                }
+            }
+
+            state.andNot(sites);
+            state.set(site++);
+        }
+    }
+
+    /**
+     * Receives the pairs of accesses to the same variable which directly
+     * follow each other on a path.
+     */
+    public interface AccessPairHandler {
+
+        /**
+         * Called for each access which may directly follow another one.
+         *
+         * @param previousNode The node of the previous access
+         * @param previous     The previous access
+         * @param node         The node of the access
+         * @param access       The access
+         */
+        void consecutiveAccesses(DataFlowNode previousNode, VariableAccess previous,
+                                 DataFlowNode node, VariableAccess access);
+    }
+}
@@ -7,6 +7,7 @@ package net.sourceforge.pmd.lang.metrics;
 import java.util.ArrayList;
 import java.util.List;
 
+import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.QualifiableNode;
 
 /**
@@ -26,10 +27,11 @@ public abstract class AbstractMetricsComputer<T extends QualifiableNode, O exten
                                  MetricOptions options, MetricMemoizer<T> memoizer) {
 
         ParameterizedMetricKey<T> paramKey = ParameterizedMetricKey.getInstance(key, options);
-        // if memo.get(key) == null then the metric has never been computed. NaN is a valid value.
-        Double prev = memoizer.getMemo(paramKey);
-        if (!force && prev != null) {
-            return prev;
+        if (!force) {
+            double prev = getMemo(memoizer, paramKey);
+            if (!Double.isNaN(prev)) {
+                return prev;
+            }
         }
 
         double val = key.getCalculator().computeFor(node, options);
@@ -44,9 +46,11 @@ public abstract class AbstractMetricsComputer<T extends QualifiableNode, O exten
                                       MetricOptions options, MetricMemoizer<O> memoizer) {
 
         ParameterizedMetricKey<O> paramKey = ParameterizedMetricKey.getInstance(key, options);
-        Double prev = memoizer.getMemo(paramKey);
-        if (!force && prev != null) {
-            return prev;
+        if (!force) {
+            double prev = getMemo(memoizer, paramKey);
+            if (!Double.isNaN(prev)) {
+                return prev;
+            }
         }
 
         double val = key.getCalculator().computeFor(node, options);
@@ -55,6 +59,19 @@ public abstract class AbstractMetricsComputer<T extends QualifiableNode, O exten
     }
 
 
+    /**
+     * Fetch a memoized result. NaN is returned if the metric has never been computed, so a NaN result is computed
+     * again when it's asked for.
+     */
+    private static <N extends Node> double getMemo(MetricMemoizer<N> memoizer, ParameterizedMetricKey<N> key) {
+        if (memoizer instanceof BasicMetricMemoizer) {
+            return ((BasicMetricMemoizer<N>) memoizer).getMemoOrNaN(key);
+        }
+        Double memo = memoizer.getMemo(key);
+        return memo == null ? Double.NaN : memo;
+    }
+
+
     @Override
     public double computeWithResultOption(MetricKey<O> key, T node, boolean force, MetricOptions options,
                                           ResultOption option, ProjectMemoizer<T, O> stats) {
@@ -88,13 +105,14 @@ public abstract class AbstractMetricsComputer<T extends QualifiableNode, O exten
 
     /**
      * Finds the declaration nodes of all methods or constructors that are declared inside a class. This is language
-     * specific, as it depends on the AST.
+     * specific, as it depends on the AST. This is called for each aggregate metric of the class, so the result may
+     * be memoized on the node.
      *
      * @param node The class in which to look for.
      *
      * @return The list of all operations declared inside the specified class.
      */
-    protected abstract List<O> findOperations(T node); // TODO:cf this one is computed every time
+    protected abstract List<O> findOperations(T node);
 
 
     private static double sum(List<Double> values) {
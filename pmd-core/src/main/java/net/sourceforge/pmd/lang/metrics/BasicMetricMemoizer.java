@@ -4,13 +4,14 @@
 
 package net.sourceforge.pmd.lang.metrics;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import net.sourceforge.pmd.lang.ast.Node;
 
 /**
- * Basic implementation of a metric memoizer.
+ * Basic implementation of a metric memoizer. Results are stored unboxed in a small open-addressed table, since a
+ * memoizer rarely holds more than a handful of metrics. Keys are pooled by {@link ParameterizedMetricKey#getInstance},
+ * so they're first compared by identity.
+ *
+ * <p>This implementation is thread-safe.
  *
  * @param <N> Type of node on which the memoized metric can be computed
  *
@@ -19,18 +20,76 @@ import net.sourceforge.pmd.lang.ast.Node;
  */
 public class BasicMetricMemoizer<N extends Node> implements MetricMemoizer<N> {
 
+    /** Initial capacity of the table, must be a power of two. */
+    private static final int INITIAL_CAPACITY = 8;
 
-    private final Map<ParameterizedMetricKey<N>, Double> memo = new HashMap<>();
+    private ParameterizedMetricKey<?>[] keys = new ParameterizedMetricKey<?>[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private int size;
 
 
     @Override
-    public Double getMemo(ParameterizedMetricKey<N> key) {
-        return memo.get(key);
+    public synchronized Double getMemo(ParameterizedMetricKey<N> key) {
+        int index = indexOf(keys, key);
+        return keys[index] == null ? null : values[index];
+    }
+
+
+    /**
+     * Fetch a memoized result for a metric and options, without boxing it.
+     *
+     * @param key The metric key parameterized with its options
+     *
+     * @return The memoized result, or NaN if it wasn't found
+     */
+    public synchronized double getMemoOrNaN(ParameterizedMetricKey<N> key) {
+        int index = indexOf(keys, key);
+        return keys[index] == null ? Double.NaN : values[index];
     }
 
 
     @Override
-    public void memoize(ParameterizedMetricKey<N> key, double value) {
-        memo.put(key, value);
+    public synchronized void memoize(ParameterizedMetricKey<N> key, double value) {
+        int index = indexOf(keys, key);
+        if (keys[index] == null) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+                index = indexOf(keys, key);
+            }
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+    }
+
+
+    private void grow() {
+        ParameterizedMetricKey<?>[] oldKeys = keys;
+        double[] oldValues = values;
+        keys = new ParameterizedMetricKey<?>[oldKeys.length * 2];
+        values = new double[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int index = indexOf(keys, oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+
+    /** Returns the slot of the key in the table, or the free slot where it should be inserted. */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private static int indexOf(ParameterizedMetricKey<?>[] table, ParameterizedMetricKey<?> key) {
+        int mask = table.length - 1;
+        int hash = key.hashCode();
+        int index = (hash ^ (hash >>> 16)) & mask;
+        ParameterizedMetricKey<?> candidate = table[index];
+        while (candidate != null && candidate != key && !candidate.equals(key)) {
+            index = (index + 1) & mask;
+            candidate = table[index];
+        }
+        return index;
     }
+
 }
@@ -14,7 +14,9 @@ import net.sourceforge.pmd.lang.ast.QualifiedName;
  * Simple implementation of a project memoizer. Memoizers are accessible in constant time, provided the QualifiedName's
  * hashCode is well distributed.
  *
- * <p>This implementation takes care of recollecting irrelevant memoizers by storing them in {@link WeakHashMap}.
+ * <p>This implementation takes care of recollecting irrelevant memoizers by storing them in {@link WeakHashMap}s.
+ * The maps are striped by the hash of the qualified name, each stripe having its own lock, so that threads
+ * analysing different files seldom contend.
  *
  * @param <T> Type of type declaration nodes of the language
  * @param <O> Type of operation declaration nodes of the language
@@ -25,39 +27,63 @@ import net.sourceforge.pmd.lang.ast.QualifiedName;
 public abstract class BasicProjectMemoizer<T extends QualifiableNode, O extends QualifiableNode>
     implements ProjectMemoizer<T, O> {
 
-    private Map<QualifiedName, MetricMemoizer<T>> classes = new WeakHashMap<>();
-    private Map<QualifiedName, MetricMemoizer<O>> operations = new WeakHashMap<>();
+    /** Number of stripes, must be a power of two. */
+    private static final int STRIPES = 16;
+
+    private final Map<QualifiedName, MetricMemoizer<T>>[] classes = newStripes();
+    private final Map<QualifiedName, MetricMemoizer<O>>[] operations = newStripes();
 
-    private final Object classesSynchronizer = new Object();
-    private final Object operationsSynchronizer = new Object();
 
     /** Clears all memoizers. Used for tests. */
     public void reset() {
-        classes.clear();
-        operations.clear();
+        for (int i = 0; i < STRIPES; i++) {
+            synchronized (classes[i]) {
+                classes[i].clear();
+            }
+            synchronized (operations[i]) {
+                operations[i].clear();
+            }
+        }
     }
 
 
     @Override
     public MetricMemoizer<O> getOperationMemoizer(QualifiedName qname) {
-        synchronized (operationsSynchronizer) {
-            if (!operations.containsKey(qname)) {
-                operations.put(qname, new BasicMetricMemoizer<O>());
-            }
-        }
-
-        return operations.get(qname);
+        return getOrCreate(operations[stripe(qname)], qname);
     }
 
 
     @Override
     public MetricMemoizer<T> getClassMemoizer(QualifiedName qname) {
-        synchronized (classesSynchronizer) {
-            if (!classes.containsKey(qname)) {
-                classes.put(qname, new BasicMetricMemoizer<T>());
+        return getOrCreate(classes[stripe(qname)], qname);
+    }
+
+
+    private static <N extends QualifiableNode> MetricMemoizer<N> getOrCreate(Map<QualifiedName, MetricMemoizer<N>> map,
+                                                                            QualifiedName qname) {
+        synchronized (map) {
+            MetricMemoizer<N> memoizer = map.get(qname);
+            if (memoizer == null) {
+                memoizer = new BasicMetricMemoizer<>();
+                map.put(qname, memoizer);
             }
+            return memoizer;
         }
+    }
+
 
-        return classes.get(qname);
+    private static int stripe(QualifiedName qname) {
+        int hash = qname.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static <N extends QualifiableNode> Map<QualifiedName, MetricMemoizer<N>>[] newStripes() {
+        Map<QualifiedName, MetricMemoizer<N>>[] stripes = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new WeakHashMap<>();
+        }
+        return stripes;
     }
 }
@@ -0,0 +1,323 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.metrics;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.ParseException;
+import net.sourceforge.pmd.lang.ast.QualifiableNode;
+import net.sourceforge.pmd.processor.PmdThreadFactory;
+import net.sourceforge.pmd.util.datasource.DataSource;
+
+/**
+ * Dumps the metrics of every class and operation of a project to a CSV table, without going through rules. The table
+ * has one row per class or operation, and one column per metric. A cell is left empty if the metric doesn't support
+ * the node or couldn't be computed.
+ *
+ * <p>Rows are written file by file, so that the memory used doesn't depend on the size of the project. The methods of
+ * this class are thread-safe. {@link #exportAll(PMDConfiguration, List)} parses the files in parallel, but computes
+ * their metrics one file at a time: the memoizers of the project are keyed by qualified name, and classes of different
+ * files may have the same one, e.g. in the default package.
+ *
+ * @param <T> Type of type declaration nodes of the language
+ * @param <O> Type of operation declaration nodes of the language
+ *
+ * @since 6.6.0
+ */
+public abstract class MetricsExporter<T extends QualifiableNode, O extends QualifiableNode> {
+
+    private static final Logger LOG = Logger.getLogger(MetricsExporter.class.getName());
+
+    private static final String TYPE_KIND = "type";
+    private static final String OPERATION_KIND = "operation";
+
+    private final Language language;
+    private final AbstractMetricsFacade<T, O> facade;
+    private final List<MetricKey<T>> typeKeys;
+    private final List<MetricKey<O>> operationKeys;
+    private final Writer writer;
+
+    /** Column of each metric name. */
+    private final Map<String, Integer> columns = new LinkedHashMap<>();
+
+
+    /**
+     * Creates a new exporter.
+     *
+     * @param language      The language of the files to export
+     * @param facade        The façade used to compute the metrics
+     * @param typeKeys      The metrics to compute on classes
+     * @param operationKeys The metrics to compute on operations
+     * @param writer        The destination of the table
+     */
+    protected MetricsExporter(Language language, AbstractMetricsFacade<T, O> facade, List<MetricKey<T>> typeKeys,
+                              List<MetricKey<O>> operationKeys, Writer writer) {
+        this.language = language;
+        this.facade = facade;
+        this.typeKeys = typeKeys;
+        this.operationKeys = operationKeys;
+        this.writer = writer;
+
+        for (MetricKey<T> key : typeKeys) {
+            addColumn(key.name());
+        }
+        for (MetricKey<O> key : operationKeys) {
+            addColumn(key.name());
+        }
+    }
+
+
+    private void addColumn(String name) {
+        if (!columns.containsKey(name)) {
+            columns.put(name, columns.size());
+        }
+    }
+
+
+    /**
+     * Finds all the type declarations of a file, including nested ones.
+     *
+     * @param root The root of the AST
+     *
+     * @return The type declarations
+     */
+    protected abstract List<T> findTypes(Node root);
+
+
+    /**
+     * Collects the nodes of the given type in a subtree, including its root, in document order. Unlike {@link
+     * Node#findDescendantsOfType(Class)}, this also matches subtypes and crosses find boundaries.
+     *
+     * @param node    The root of the subtree
+     * @param type    The type of nodes to collect
+     * @param results The list to which the nodes are added
+     * @param <N>     The type of nodes to collect
+     */
+    protected static <N> void collectNodes(Node node, Class<N> type, List<N> results) {
+        if (type.isInstance(node)) {
+            results.add(type.cast(node));
+        }
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            collectNodes(node.jjtGetChild(i), type, results);
+        }
+    }
+
+
+    /**
+     * Finds the operations declared inside a type declaration.
+     *
+     * @param node The type declaration
+     *
+     * @return The operations
+     */
+    protected abstract List<O> findOperations(T node);
+
+
+    /**
+     * Writes the header of the table.
+     *
+     * @throws IOException If the writer fails
+     */
+    public void writeHeader() throws IOException {
+        StringBuilder sb = new StringBuilder("file,kind,name");
+        for (String name : columns.keySet()) {
+            sb.append(',').append(name);
+        }
+        sb.append(PMD.EOL);
+        write(sb);
+    }
+
+
+    /**
+     * Computes the metrics of the classes and operations of a file and writes them. The memoizers of the project are
+     * keyed by qualified name, and another file may have declared the same classes, so the files are exported one at
+     * a time and the memoizers are cleared before each of them.
+     *
+     * @param fileName The name of the file, which is written in the first column
+     * @param root     The root of the AST. Its qualified names must have been resolved
+     *
+     * @throws IOException If the writer fails
+     */
+    public void export(String fileName, Node root) throws IOException {
+        synchronized (facade) {
+            ProjectMemoizer<T, O> memoizer = facade.getLanguageSpecificProjectMemoizer();
+            if (memoizer instanceof BasicProjectMemoizer) {
+                ((BasicProjectMemoizer<T, O>) memoizer).reset();
+            }
+            exportMetrics(fileName, root, memoizer);
+        }
+    }
+
+
+    private void exportMetrics(String fileName, Node root, ProjectMemoizer<T, O> memoizer) throws IOException {
+        MetricsComputer<T, O> computer = facade.getLanguageSpecificComputer();
+        MetricOptions options = MetricOptions.emptyOptions();
+        StringBuilder sb = new StringBuilder();
+        StringBuilder operationRows = new StringBuilder();
+        double[] row = new double[columns.size()];
+
+        for (T type : findTypes(root)) {
+            // the operations are computed first, the metrics of the class may aggregate theirs from the memoizers
+            operationRows.setLength(0);
+            for (O operation : findOperations(type)) {
+                clear(row);
+                MetricMemoizer<O> operationMemoizer = memoizer.getOperationMemoizer(operation.getQualifiedName());
+                if (operationMemoizer != null) {
+                    for (MetricKey<O> key : operationKeys) {
+                        if (key.supports(operation)) {
+                            row[columns.get(key.name())] = computer.computeForOperation(key, operation, true, options,
+                                                                                        operationMemoizer);
+                        }
+                    }
+                }
+                appendRow(operationRows, fileName, OPERATION_KIND, operation, row);
+            }
+
+            clear(row);
+            MetricMemoizer<T> typeMemoizer = memoizer.getClassMemoizer(type.getQualifiedName());
+            if (typeMemoizer != null) {
+                for (MetricKey<T> key : typeKeys) {
+                    if (key.supports(type)) {
+                        row[columns.get(key.name())] = computer.computeForType(key, type, true, options,
+                                                                               typeMemoizer);
+                    }
+                }
+            }
+            appendRow(sb, fileName, TYPE_KIND, type, row);
+            sb.append(operationRows);
+        }
+
+        write(sb);
+    }
+
+
+    /**
+     * Parses the files of the language of this exporter and writes the header and the metrics of each file. The files
+     * are processed in parallel according to {@link PMDConfiguration#getThreads()}, in no particular order. Files which
+     * cannot be parsed are skipped.
+     *
+     * @param configuration The configuration, used to parse the files
+     * @param files         The files to export
+     *
+     * @throws IOException If the writer fails
+     */
+    public void exportAll(final PMDConfiguration configuration, List<DataSource> files) throws IOException {
+        writeHeader();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, configuration.getThreads()),
+                                                                new PmdThreadFactory());
+        try {
+            List<Future<Void>> tasks = new ArrayList<>(files.size());
+            for (final DataSource file : files) {
+                tasks.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        exportFile(configuration, file);
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        writer.flush();
+    }
+
+
+    private void exportFile(PMDConfiguration configuration, DataSource file) throws IOException {
+        String fileName = file.getNiceFileName(configuration.isReportShortNames(), configuration.getInputPaths());
+        LanguageVersion version = configuration.getLanguageVersionOfFile(fileName);
+        if (version == null || !language.equals(version.getLanguage())) {
+            return;
+        }
+
+        LanguageVersionHandler handler = version.getLanguageVersionHandler();
+        Node root;
+        try (Reader reader = new InputStreamReader(file.getInputStream(), configuration.getSourceEncoding())) {
+            root = PMD.parserFor(version, configuration).parse(fileName, reader);
+        } catch (ParseException | IOException e) {
+            LOG.log(Level.WARNING, "Skipping " + fileName + " from the metrics export", e);
+            return;
+        }
+        handler.getQualifiedNameResolutionFacade(configuration.getClassLoader()).start(root);
+        handler.getSymbolFacade(configuration.getClassLoader()).start(root);
+
+        export(fileName, root);
+    }
+
+
+    private void write(CharSequence chars) throws IOException {
+        if (chars.length() == 0) {
+            return;
+        }
+        synchronized (writer) {
+            writer.append(chars);
+        }
+    }
+
+
+    private static void clear(double[] row) {
+        for (int i = 0; i < row.length; i++) {
+            row[i] = Double.NaN;
+        }
+    }
+
+
+    private static void appendRow(StringBuilder sb, String fileName, String kind, QualifiableNode node, double[] row) {
+        appendCell(sb, fileName).append(',').append(kind).append(',');
+        appendCell(sb, String.valueOf(node.getQualifiedName()));
+        for (double value : row) {
+            sb.append(',');
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            if (value == Math.rint(value) && !Double.isInfinite(value)) {
+                sb.append((long) value);
+            } else {
+                sb.append(value);
+            }
+        }
+        sb.append(PMD.EOL);
+    }
+
+
+    private static StringBuilder appendCell(StringBuilder sb, String cell) {
+        if (cell.indexOf(',') < 0 && cell.indexOf('"') < 0 && cell.indexOf('\n') < 0) {
+            return sb.append(cell);
+        }
+        return sb.append('"').append(cell.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -4,8 +4,8 @@
 
 package net.sourceforge.pmd.lang.metrics;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.sourceforge.pmd.lang.ast.Node;
 
@@ -19,7 +19,7 @@ import net.sourceforge.pmd.lang.ast.Node;
  */
 public final class ParameterizedMetricKey<N extends Node> {
 
-    private static final Map<ParameterizedMetricKey<?>, ParameterizedMetricKey<?>> POOL = new HashMap<>();
+    private static final ConcurrentMap<ParameterizedMetricKey<?>, ParameterizedMetricKey<?>> POOL = new ConcurrentHashMap<>();
 
     /** The metric key. */
     public final MetricKey<N> key;
@@ -66,12 +66,10 @@ public final class ParameterizedMetricKey<N extends Node> {
     @SuppressWarnings("PMD.SingletonClassReturningNewInstance")
     public static <N extends Node> ParameterizedMetricKey<N> getInstance(MetricKey<N> key, MetricOptions options) {
         ParameterizedMetricKey<N> tmp = new ParameterizedMetricKey<>(key, options);
-        if (!POOL.containsKey(tmp)) {
-            POOL.put(tmp, tmp);
-        }
+        ParameterizedMetricKey<?> pooled = POOL.putIfAbsent(tmp, tmp);
 
         @SuppressWarnings("unchecked")
-        ParameterizedMetricKey<N> result = (ParameterizedMetricKey<N>) POOL.get(tmp);
+        ParameterizedMetricKey<N> result = pooled == null ? tmp : (ParameterizedMetricKey<N>) pooled;
         return result;
     }
 }
@@ -8,9 +8,10 @@ import static net.sourceforge.pmd.lang.rule.stat.StatisticalRule.MINIMUM_DESCRIP
 import static net.sourceforge.pmd.lang.rule.stat.StatisticalRule.SIGMA_DESCRIPTOR;
 import static net.sourceforge.pmd.lang.rule.stat.StatisticalRule.TOP_SCORE_DESCRIPTOR;
 
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
 
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.lang.rule.AbstractRule;
@@ -21,6 +22,11 @@ import net.sourceforge.pmd.stat.Metric;
  * This class is used to implement the core logic of a StatisticalRule. Concrete
  * Rule implementations should delegate to an instance of this class.
  *
+ * <p>The mean and standard deviation are updated as the data points are
+ * added, so applying the thresholds only takes one pass over the points,
+ * and the top scores are selected with a heap of the size of the topscore
+ * property. Only the reported points are sorted.
+ *
  * @author David Dixon-Peugh Aug 8, 2002 StatisticalRule.java
  */
 public class StatisticalRuleHelper {
@@ -29,11 +35,17 @@ public class StatisticalRuleHelper {
 
     private AbstractRule rule;
 
-    private SortedSet<DataPoint> dataPoints = new TreeSet<>();
+    private List<DataPoint> dataPoints = new ArrayList<>();
 
     private int count = 0;
     private double total = 0.0;
 
+    // running mean and sum of squared deviations of the points of the file, see Welford's algorithm
+    private double pointsMean = 0.0;
+    private double squaredDeviations = 0.0;
+    private double low = Double.POSITIVE_INFINITY;
+    private double high = Double.NEGATIVE_INFINITY;
+
     public StatisticalRuleHelper(AbstractRule rule) {
         this.rule = rule;
         rule.definePropertyDescriptor(SIGMA_DESCRIPTOR);
@@ -42,9 +54,15 @@ public class StatisticalRuleHelper {
     }
 
     public void addDataPoint(DataPoint point) {
+        double score = point.getScore();
         count++;
-        total += point.getScore();
+        total += score;
         dataPoints.add(point);
+        double delta = score - pointsMean;
+        pointsMean += delta / dataPoints.size();
+        squaredDeviations += delta * (score - pointsMean);
+        low = Math.min(low, score);
+        high = Math.max(high, score);
     }
 
     public void apply(RuleContext ctx) {
@@ -70,30 +88,37 @@ public class StatisticalRuleHelper {
             }
         }
 
-        SortedSet<DataPoint> newPoints = applyMinimumValue(dataPoints, minimum);
-
+        List<DataPoint> newPoints;
         if (rule.getProperty(TOP_SCORE_DESCRIPTOR) != null) { // TODO - need to
             // come up with a
             // good default
             // value
             int topScore = rule.getProperty(TOP_SCORE_DESCRIPTOR);
-            if (newPoints.size() >= topScore) {
-                newPoints = applyTopScore(newPoints, topScore);
-            }
+            newPoints = applyTopScore(dataPoints, minimum, topScore);
+        } else {
+            newPoints = applyMinimumValue(dataPoints, minimum);
         }
 
+        Collections.sort(newPoints);
         makeViolations(ctx, newPoints);
 
-        double low = 0.0d;
-        double high = 0.0d;
-        if (!dataPoints.isEmpty()) {
-            low = dataPoints.first().getScore();
-            high = dataPoints.last().getScore();
+        if (dataPoints.isEmpty()) {
+            low = 0.0d;
+            high = 0.0d;
         }
 
         ctx.getReport().addMetric(new Metric(rule.getName(), count, total, low, high, getMean(), getStdDev()));
 
+        reset();
+    }
+
+    private void reset() {
+        // the count and total aren't reset, so the mean includes the previous files
         dataPoints.clear();
+        pointsMean = 0.0;
+        squaredDeviations = 0.0;
+        low = Double.POSITIVE_INFINITY;
+        high = Double.NEGATIVE_INFINITY;
     }
 
     private double getMean() {
@@ -101,27 +126,21 @@ public class StatisticalRuleHelper {
     }
 
     private double getStdDev() {
-        if (dataPoints.size() < 2) {
+        int n = dataPoints.size();
+        if (n < 2) {
             return Double.NaN;
         }
 
-        double mean = getMean();
-        double deltaSq = 0.0;
-        double scoreMinusMean;
-
-        for (DataPoint point : dataPoints) {
-            scoreMinusMean = point.getScore() - mean;
-            deltaSq += scoreMinusMean * scoreMinusMean;
-        }
-
-        return Math.sqrt(deltaSq / (dataPoints.size() - 1));
+        // deviations from the overall mean, which differs from the mean of the points of the file
+        double shift = pointsMean - getMean();
+        return Math.sqrt((squaredDeviations + n * shift * shift) / (n - 1));
     }
 
-    private SortedSet<DataPoint> applyMinimumValue(SortedSet<DataPoint> pointSet, double minValue) {
-        SortedSet<DataPoint> rc = new TreeSet<>();
+    private List<DataPoint> applyMinimumValue(List<DataPoint> points, double minValue) {
+        List<DataPoint> rc = new ArrayList<>();
         double threshold = minValue - DELTA;
 
-        for (DataPoint point : pointSet) {
+        for (DataPoint point : points) {
             if (point.getScore() > threshold) {
                 rc.add(point);
             }
@@ -129,16 +148,32 @@ public class StatisticalRuleHelper {
         return rc;
     }
 
-    private SortedSet<DataPoint> applyTopScore(SortedSet<DataPoint> points, int topScore) {
-        SortedSet<DataPoint> s = new TreeSet<>();
-        DataPoint[] arr = points.toArray(new DataPoint[] {});
-        for (int i = arr.length - 1; i >= (arr.length - topScore); i--) {
-            s.add(arr[i]);
+    /**
+     * Selects the points with the highest scores among those above the
+     * minimum value, keeping at most topScore points in the heap.
+     */
+    private List<DataPoint> applyTopScore(List<DataPoint> points, double minValue, int topScore) {
+        if (topScore <= 0) {
+            return new ArrayList<>();
+        }
+
+        PriorityQueue<DataPoint> top = new PriorityQueue<>(topScore);
+        double threshold = minValue - DELTA;
+
+        for (DataPoint point : points) {
+            if (point.getScore() > threshold) {
+                if (top.size() < topScore) {
+                    top.add(point);
+                } else if (point.compareTo(top.peek()) > 0) {
+                    top.poll();
+                    top.add(point);
+                }
+            }
         }
-        return s;
+        return new ArrayList<>(top);
     }
 
-    private void makeViolations(RuleContext ctx, Set<DataPoint> p) {
+    private void makeViolations(RuleContext ctx, List<DataPoint> p) {
         for (DataPoint point : p) {
             rule.addViolationWithMessage(ctx, point.getNode(), point.getMessage(),
                     ((StatisticalRule) rule).getViolationParameters(point));
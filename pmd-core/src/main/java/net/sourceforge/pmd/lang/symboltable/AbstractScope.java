@@ -6,6 +6,7 @@ package net.sourceforge.pmd.lang.symboltable;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -20,6 +21,8 @@ public abstract class AbstractScope implements Scope {
     private Scope parent;
     /** Stores the name declaration already sorted by class. */
     private Map<Class<? extends NameDeclaration>, Map<NameDeclaration, List<NameOccurrence>>> nameDeclarations = new LinkedHashMap<>();
+    /** Indexes the name declarations by image, in declaration order. */
+    private Map<String, List<NameDeclaration>> declarationsByImage = new HashMap<>();
 
     @Override
     public Scope getParent() {
@@ -50,14 +53,51 @@ public abstract class AbstractScope implements Scope {
         return result;
     }
 
-    @Override
-    public boolean contains(NameOccurrence occ) {
-        for (NameDeclaration d : getDeclarations().keySet()) {
-            if (d.getImage().equals(occ.getImage())) {
-                return true;
+    /**
+     * Gets all the declarations of this scope having the given image, in
+     * declaration order. This is a hashed lookup, unlike iterating over
+     * {@link #getDeclarations()}.
+     *
+     * @param image
+     *            the image of the declarations to look for
+     * @return the declarations with the given image, possibly empty
+     */
+    public List<NameDeclaration> findDeclarationsByImage(String image) {
+        List<NameDeclaration> result = declarationsByImage.get(image);
+        if (result == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Gets the declarations of the given type having the given image, in
+     * declaration order. Like {@link #getDeclarations(Class)}, only
+     * declarations of exactly the given type are returned.
+     *
+     * @param clazz
+     *            the type of name declarations to use
+     * @param image
+     *            the image of the declarations to look for
+     * @return the declarations with the given image, possibly empty
+     */
+    public <T extends NameDeclaration> List<T> findDeclarationsByImage(Class<T> clazz, String image) {
+        List<NameDeclaration> candidates = declarationsByImage.get(image);
+        if (candidates == null) {
+            return Collections.emptyList();
+        }
+        List<T> result = new ArrayList<>(candidates.size());
+        for (NameDeclaration d : candidates) {
+            if (d.getClass() == clazz) {
+                result.add(clazz.cast(d));
             }
         }
-        return false;
+        return result;
+    }
+
+    @Override
+    public boolean contains(NameOccurrence occ) {
+        return declarationsByImage.containsKey(occ.getImage());
     }
 
     @Override
@@ -67,7 +107,17 @@ public abstract class AbstractScope implements Scope {
             declarationsPerClass = new LinkedHashMap<>();
             nameDeclarations.put(declaration.getClass(), declarationsPerClass);
         }
-        declarationsPerClass.put(declaration, new ArrayList<NameOccurrence>());
+        if (declarationsPerClass.put(declaration, new ArrayList<NameOccurrence>()) != null) {
+            // an equal declaration is already indexed
+            return;
+        }
+
+        List<NameDeclaration> declarationsPerImage = declarationsByImage.get(declaration.getImage());
+        if (declarationsPerImage == null) {
+            declarationsPerImage = new ArrayList<>(1);
+            declarationsByImage.put(declaration.getImage(), declarationsPerImage);
+        }
+        declarationsPerImage.add(declaration);
     }
 
     @SuppressWarnings("unchecked")
@@ -86,11 +136,9 @@ public abstract class AbstractScope implements Scope {
     @Override
     public Set<NameDeclaration> addNameOccurrence(NameOccurrence occurrence) {
         Set<NameDeclaration> result = new HashSet<>();
-        for (Map.Entry<NameDeclaration, List<NameOccurrence>> e : getDeclarations().entrySet()) {
-            if (e.getKey().getImage().equals(occurrence.getImage())) {
-                result.add(e.getKey());
-                e.getValue().add(occurrence);
-            }
+        for (NameDeclaration d : findDeclarationsByImage(occurrence.getImage())) {
+            result.add(d);
+            nameDeclarations.get(d.getClass()).get(d).add(occurrence);
         }
         return result;
     }
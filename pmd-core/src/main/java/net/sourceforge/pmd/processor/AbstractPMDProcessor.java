@@ -4,7 +4,9 @@
 
 package net.sourceforge.pmd.processor;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -22,6 +24,8 @@ import net.sourceforge.pmd.SourceCodeProcessor;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.cache.AbstractAnalysisCache;
+import net.sourceforge.pmd.cache.AnalysisCache;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.util.datasource.DataSource;
 
@@ -35,8 +39,13 @@ public abstract class AbstractPMDProcessor {
     
     protected final PMDConfiguration configuration;
 
+    /* null unless the analysis stops early, see PMDConfiguration#getFailFastThreshold */
+    private final FailFast failFast;
+
     public AbstractPMDProcessor(PMDConfiguration configuration) {
         this.configuration = configuration;
+        this.failFast = configuration.getFailFastThreshold() > 0
+                ? new FailFast(configuration.getFailFastThreshold(), configuration.getFailFastPriority()) : null;
     }
 
     public void renderReports(final List<Renderer> renderers, final Report report) {
@@ -102,10 +111,35 @@ public abstract class AbstractPMDProcessor {
         configuration.getAnalysisCache().checkValidity(rs, configuration.getClassLoader());
         SourceCodeProcessor processor = new SourceCodeProcessor(configuration);
 
-        for (DataSource dataSource : files) {
+        // null unless the files are reported in batches, see PMDConfiguration#getReportBatchSize
+        ThreadReports threadReports = configuration.getReportBatchSize() > 0
+                ? new ThreadReports(configuration.getReportBatchSize()) : null;
+
+        List<DataSource> orderedFiles = files;
+        if (failFast != null) {
+            // the file reports take the listeners of the context
+            ctx.getReport().addListener(failFast);
+            orderedFiles = likelyViolationsFirst(files);
+        }
+
+        if (usesMultifile(rs)) {
+            // first pass: the whole project is known before any rule is applied
+            List<MultifileRunnable> multifileRunnables = new ArrayList<>(files.size());
+            for (DataSource dataSource : files) {
+                multifileRunnables.add(new MultifileRunnable(dataSource, filenameFrom(dataSource), rs, processor));
+            }
+            runMultifileAnalysis(multifileRunnables);
+            processor.setMultifileDataCollected(true);
+        }
+
+        for (DataSource dataSource : orderedFiles) {
+            if (isStopped()) {
+                break;
+            }
             String niceFileName = filenameFrom(dataSource);
 
-            runAnalysis(new PmdRunnable(dataSource, niceFileName, renderers, ctx, rs, processor));
+            runAnalysis(new PmdRunnable(dataSource, niceFileName, renderers, ctx, rs, processor, failFast,
+                                        threadReports));
         }
 
         // render base report first - general errors
@@ -113,6 +147,85 @@ public abstract class AbstractPMDProcessor {
         
         // then add analysis results per file
         collectReports(renderers);
+        if (threadReports != null) {
+            for (Report report : threadReports.remaining()) {
+                renderReports(renderers, report);
+            }
+        }
+
+        if (isStopped() && LOG.isLoggable(Level.WARNING)) {
+            LOG.warning("Fail fast: the analysis stopped after " + failFast.getViolationCount() + " violation(s)"
+                    + (isStoppedByFailure() ? " and a file which couldn't be analysed" : "") + ", "
+                    + (files.size() - failFast.getAnalyzedFileCount()) + " file(s) were not analysed");
+        }
+    }
+
+    /**
+     * Orders the files so that those which are likely to have violations,
+     * according to the analysis cache, are analysed first. The order of the
+     * other files is kept.
+     */
+    private List<DataSource> likelyViolationsFirst(List<DataSource> files) {
+        AnalysisCache cache = configuration.getAnalysisCache();
+        if (!(cache instanceof AbstractAnalysisCache)) {
+            return files;
+        }
+
+        List<DataSource> ordered = new ArrayList<>(files.size());
+        List<DataSource> others = new ArrayList<>();
+        for (DataSource dataSource : files) {
+            if (((AbstractAnalysisCache) cache).isLikelyToHaveViolations(new File(filenameFrom(dataSource)))) {
+                ordered.add(dataSource);
+            } else {
+                others.add(dataSource);
+            }
+        }
+        ordered.addAll(others);
+        return ordered;
+    }
+
+    /**
+     * Checks whether the analysis stopped early, in fail-fast mode. Once it
+     * stopped, the files which weren't analysed yet aren't: their
+     * {@link PmdRunnable} returns no report.
+     *
+     * @return true if the remaining files shouldn't be analysed
+     */
+    protected boolean isStopped() {
+        return failFast != null && failFast.isTriggered();
+    }
+
+    /**
+     * Checks whether the analysis stopped early, in fail-fast mode, because
+     * a file couldn't be analysed. The report is then incomplete whatever
+     * the number of violations, and the run should fail.
+     *
+     * @return true if a file couldn't be analysed in fail-fast mode
+     */
+    public boolean isStoppedByFailure() {
+        return failFast != null && failFast.isTriggeredByFailure();
+    }
+
+    private static boolean usesMultifile(RuleSets ruleSets) {
+        for (Rule rule : ruleSets.getAllRules()) {
+            if (rule.isMultifile()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs the first pass of a two-pass analysis, and returns once all
+     * the given runnables have completed. Runs them on the current thread
+     * by default.
+     *
+     * @param runnables One runnable per analysed file
+     */
+    protected void runMultifileAnalysis(List<MultifileRunnable> runnables) {
+        for (MultifileRunnable runnable : runnables) {
+            runnable.call();
+        }
     }
 
     protected abstract void runAnalysis(PmdRunnable runnable);
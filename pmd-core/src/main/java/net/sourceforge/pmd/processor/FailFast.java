@@ -0,0 +1,81 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.processor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.ThreadSafeReportListener;
+import net.sourceforge.pmd.stat.Metric;
+
+/**
+ * Decides when the analysis stops early, in fail-fast mode: once enough
+ * violations of a high enough priority were found, or once a file couldn't
+ * be analysed. It listens to the reports of the files, so that the
+ * violations are counted while the files are analysed, on all the threads.
+ */
+class FailFast implements ThreadSafeReportListener {
+
+    private final int threshold;
+    private final RulePriority priority;
+    private final AtomicInteger violations = new AtomicInteger();
+    private final AtomicInteger analyzedFiles = new AtomicInteger();
+    private final AtomicBoolean triggered = new AtomicBoolean();
+    private final AtomicBoolean failed = new AtomicBoolean();
+
+
+    FailFast(int threshold, RulePriority priority) {
+        this.threshold = threshold;
+        this.priority = priority;
+    }
+
+
+    @Override
+    public void ruleViolationAdded(RuleViolation ruleViolation) {
+        if (ruleViolation.getRule().getPriority().getPriority() <= priority.getPriority()
+                && violations.incrementAndGet() >= threshold) {
+            triggered.set(true);
+        }
+    }
+
+
+    @Override
+    public void metricAdded(Metric metric) {
+        // ignored - not needed for counting violations
+    }
+
+
+    /** Called once each file is analysed, on the thread which analysed it. */
+    void fileAnalyzed(boolean failed) {
+        analyzedFiles.incrementAndGet();
+        if (failed) {
+            this.failed.set(true);
+            triggered.set(true);
+        }
+    }
+
+
+    boolean isTriggered() {
+        return triggered.get();
+    }
+
+
+    /** Whether a file couldn't be analysed, which stops the analysis whatever the number of violations. */
+    boolean isTriggeredByFailure() {
+        return failed.get();
+    }
+
+
+    int getViolationCount() {
+        return violations.get();
+    }
+
+
+    int getAnalyzedFileCount() {
+        return analyzedFiles.get();
+    }
+}
@@ -26,7 +26,10 @@ public final class MonoThreadProcessor extends AbstractPMDProcessor {
     @Override
     protected void runAnalysis(PmdRunnable runnable) {
         // single thread execution, run analysis on same thread
-        reports.add(runnable.call());
+        Report report = runnable.call();
+        if (report != null) {
+            reports.add(report);
+        }
     }
 
     @Override
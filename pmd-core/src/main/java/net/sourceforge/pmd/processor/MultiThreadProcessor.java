@@ -10,6 +10,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import net.sourceforge.pmd.PMDConfiguration;
 import net.sourceforge.pmd.Report;
@@ -32,6 +33,20 @@ public class MultiThreadProcessor extends AbstractPMDProcessor {
         completionService = new ExecutorCompletionService<>(executor);
     }
 
+    @Override
+    protected void runMultifileAnalysis(List<MultifileRunnable> runnables) {
+        try {
+            for (Future<Void> future : executor.invokeAll(runnables)) {
+                future.get();
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException ee) {
+            executor.shutdownNow();
+            rethrow(ee);
+        }
+    }
+
     @Override
     protected void runAnalysis(PmdRunnable runnable) {
         completionService.submit(runnable);
@@ -43,21 +58,29 @@ public class MultiThreadProcessor extends AbstractPMDProcessor {
         try {
             for (int i = 0; i < submittedTasks; i++) {
                 final Report report = completionService.take().get();
+                if (report == null) {
+                    // skipped, or collected with the next files of the thread
+                    continue;
+                }
                 super.renderReports(renderers, report);
             }
         } catch (final InterruptedException ie) {
             Thread.currentThread().interrupt();
         } catch (final ExecutionException ee) {
-            final Throwable t = ee.getCause();
-            if (t instanceof RuntimeException) {
-                throw (RuntimeException) t;
-            } else if (t instanceof Error) {
-                throw (Error) t;
-            } else {
-                throw new IllegalStateException("PmdRunnable exception", t);
-            }
+            rethrow(ee);
         } finally {
             executor.shutdownNow();
         }
     }
+
+    private static void rethrow(ExecutionException ee) {
+        final Throwable t = ee.getCause();
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else {
+            throw new IllegalStateException("PmdRunnable exception", t);
+        }
+    }
 }
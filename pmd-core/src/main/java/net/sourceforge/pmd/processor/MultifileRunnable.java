@@ -0,0 +1,63 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.processor;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sourceforge.pmd.PMDException;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.SourceCodeProcessor;
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.util.datasource.DataSource;
+
+/**
+ * Feeds one file to the multifile analysis during the first pass of a
+ * two-pass analysis. No rule is applied and no report is produced, errors
+ * are reported by the {@link PmdRunnable} of the second pass.
+ *
+ * @see SourceCodeProcessor#collectMultifileData(InputStream, RuleSets, RuleContext)
+ */
+public class MultifileRunnable implements Callable<Void> {
+
+    private static final Logger LOG = Logger.getLogger(MultifileRunnable.class.getName());
+
+    private final DataSource dataSource;
+    private final String fileName;
+    private final RuleSets ruleSets;
+    private final SourceCodeProcessor sourceCodeProcessor;
+
+    public MultifileRunnable(DataSource dataSource, String fileName, RuleSets ruleSets,
+            SourceCodeProcessor sourceCodeProcessor) {
+        this.dataSource = dataSource;
+        this.fileName = fileName;
+        this.ruleSets = ruleSets;
+        this.sourceCodeProcessor = sourceCodeProcessor;
+    }
+
+    @Override
+    public Void call() {
+        TimeTracker.initThread();
+
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename(fileName);
+        ctx.setSourceCodeFile(new File(fileName));
+
+        try (InputStream stream = new BufferedInputStream(dataSource.getInputStream())) {
+            sourceCodeProcessor.collectMultifileData(stream, ruleSets, ctx);
+        } catch (PMDException | IOException | RuntimeException e) {
+            LOG.log(Level.FINE, "Error during multifile analysis of " + fileName, e);
+        }
+
+        TimeTracker.finishThread();
+        return null;
+    }
+}
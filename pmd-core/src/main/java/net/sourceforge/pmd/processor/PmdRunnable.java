@@ -33,9 +33,19 @@ public class PmdRunnable implements Callable<Report> {
     private final RuleContext ruleContext;
     private final RuleSets ruleSets;
     private final SourceCodeProcessor sourceCodeProcessor;
+    private final FailFast failFast;
+    private final ThreadReports threadReports;
 
     public PmdRunnable(DataSource dataSource, String fileName, List<Renderer> renderers,
             RuleContext ruleContext, RuleSets ruleSets, SourceCodeProcessor sourceCodeProcessor) {
+        this(dataSource, fileName, renderers, ruleContext, ruleSets, sourceCodeProcessor, null, null);
+    }
+
+    /* default */ PmdRunnable(DataSource dataSource, String fileName, List<Renderer> renderers,
+            RuleContext ruleContext, RuleSets ruleSets, SourceCodeProcessor sourceCodeProcessor, FailFast failFast,
+            ThreadReports threadReports) {
+        this.failFast = failFast;
+        this.threadReports = threadReports;
         this.ruleSets = ruleSets;
         this.dataSource = dataSource;
         this.fileName = fileName;
@@ -54,8 +64,20 @@ public class PmdRunnable implements Callable<Report> {
         report.addError(new Report.ProcessingError(e, fileName));
     }
 
+    /**
+     * Analyses the file.
+     *
+     * @return The report of the file, or null if the analysis stopped early
+     *         in fail-fast mode before this file. When the reports of the
+     *         thread are collected in batches, the report of the batch once
+     *         it's complete, or null.
+     */
     @Override
     public Report call() {
+        if (failFast != null && failFast.isTriggered()) {
+            return null;
+        }
+
         TimeTracker.initThread();
         
         ThreadContext tc = LOCAL_THREAD_CONTEXT.get();
@@ -64,7 +86,8 @@ public class PmdRunnable implements Callable<Report> {
             LOCAL_THREAD_CONTEXT.set(tc);
         }
 
-        Report report = Report.createReport(tc.ruleContext, fileName);
+        Report report = threadReports == null ? Report.createReport(tc.ruleContext, fileName)
+                : threadReports.startFile(tc.ruleContext, fileName);
 
         if (LOG.isLoggable(Level.FINE)) {
             LOG.fine("Processing " + tc.ruleContext.getSourceCodeFilename());
@@ -73,9 +96,11 @@ public class PmdRunnable implements Callable<Report> {
             r.startFileAnalysis(dataSource);
         }
 
+        boolean failed = true;
         try (InputStream stream = new BufferedInputStream(dataSource.getInputStream())) {
             tc.ruleContext.setLanguageVersion(null);
             sourceCodeProcessor.processSourceCode(stream, tc.ruleSets, tc.ruleContext);
+            failed = false;
         } catch (PMDException pmde) {
             addError(report, pmde, "Error while processing file: " + fileName);
         } catch (IOException ioe) {
@@ -85,8 +110,12 @@ public class PmdRunnable implements Callable<Report> {
         }
 
         TimeTracker.finishThread();
+
+        if (failFast != null) {
+            failFast.fileAnalyzed(failed);
+        }
         
-        return report;
+        return threadReports == null ? report : threadReports.fileDone();
     }
 
     private static class ThreadContext {
@@ -0,0 +1,101 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.processor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+
+/**
+ * Collects the violations of several files in the same report, on each
+ * thread, instead of creating a report per file. A report is handed over
+ * to be rendered once it collected a batch of files, and the reports of
+ * the last batches are handed over at the end of the analysis.
+ *
+ * <p>The reports are only used by the thread which created them until
+ * they're handed over.
+ */
+class ThreadReports {
+
+    private final int batchSize;
+    private final ThreadLocal<Batch> current = new ThreadLocal<>();
+    private final Queue<Batch> batches = new ConcurrentLinkedQueue<>();
+
+
+    ThreadReports(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+
+    /**
+     * Returns the report of the current thread, in which the violations of
+     * the file are collected, and makes it the report of the context.
+     */
+    Report startFile(RuleContext ctx, String fileName) {
+        Batch batch = current.get();
+        if (batch == null) {
+            batch = new Batch(Report.createReport(ctx, fileName));
+            current.set(batch);
+            batches.add(batch);
+            return batch.report;
+        }
+
+        batch.report.startFile();
+        ctx.setReport(batch.report);
+        ctx.setSourceCodeFilename(fileName);
+        ctx.setSourceCodeFile(new File(fileName));
+        return batch.report;
+    }
+
+
+    /**
+     * Notifies that the current thread analysed its file, and returns its
+     * report if it's time to render it.
+     *
+     * @return The report of the batch, or null if the batch isn't complete
+     */
+    Report fileDone() {
+        Batch batch = current.get();
+        batch.files++;
+        if (batch.files < batchSize) {
+            return null;
+        }
+        current.remove();
+        batches.remove(batch);
+        return batch.report;
+    }
+
+
+    /**
+     * Returns the reports of the batches which weren't handed over. Must only
+     * be called once all the files were analysed.
+     */
+    List<Report> remaining() {
+        current.remove();
+        List<Report> reports = new ArrayList<>();
+        Batch batch;
+        while ((batch = batches.poll()) != null) {
+            if (batch.files > 0) {
+                reports.add(batch.report);
+            }
+        }
+        return reports;
+    }
+
+
+    private static final class Batch {
+        final Report report;
+        int files;
+
+        Batch(Report report) {
+            this.report = report;
+        }
+    }
+}
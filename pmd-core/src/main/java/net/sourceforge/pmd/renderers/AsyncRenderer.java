@@ -0,0 +1,364 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.benchmark.TimedOperation;
+import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.util.datasource.DataSource;
+
+/**
+ * Runs another renderer on a dedicated thread, so that the threads which
+ * collect the reports don't wait for a slow output. The file reports are
+ * handed to the rendering thread through a bounded queue, so that the
+ * reports waiting to be rendered don't fill the memory: when the queue is
+ * full, {@link #renderFileReport(Report)} blocks until there's room.
+ *
+ * <p>The renderer writes to a buffer, and its flushes are coalesced: the
+ * output is only flushed when enough characters were written or enough time
+ * passed since the previous flush, and at the {@link #end()}. The time spent
+ * by the renderer on each file is tracked by the {@link TimeTracker} as
+ * {@link TimedOperationCategory#REPORTING}, labelled with its name.
+ *
+ * <p>All the calls to the renderer, from {@link #start()} to {@link #flush()},
+ * are made on the rendering thread, so that the renderers whose output is
+ * tied to the thread which writes it, such as the {@link XSLTRenderer}, work.
+ *
+ * <p>The renderer must be configured before it's wrapped. If it fails, the
+ * next call to {@link #renderFileReport(Report)} or {@link #end()} throws
+ * its exception.
+ *
+ * @since 6.6.0
+ */
+public class AsyncRenderer extends AbstractRenderer {
+
+    /** Default number of file reports waiting to be rendered. */
+    public static final int DEFAULT_QUEUE_SIZE = 64;
+    /** Default number of characters written between two flushes. */
+    public static final int DEFAULT_FLUSH_SIZE = 64 * 1024;
+    /** Default maximum time between two flushes. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+
+    private static final Object END = new Object();
+    private static final Object FLUSH = new Object();
+
+    private final Renderer renderer;
+    private final BlockingQueue<Object> queue;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+
+    private CoalescingWriter output;
+    private Thread thread;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch ended = new CountDownLatch(1);
+
+
+    /**
+     * Wraps a renderer with the default queue size and flush policy.
+     *
+     * @param renderer The renderer
+     */
+    public AsyncRenderer(Renderer renderer) {
+        this(renderer, DEFAULT_QUEUE_SIZE, DEFAULT_FLUSH_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+
+    /**
+     * Wraps a renderer.
+     *
+     * @param renderer            The renderer
+     * @param queueSize           The maximum number of file reports waiting to be rendered
+     * @param flushSize           The number of characters written after which the output is flushed
+     * @param flushIntervalMillis The time after which the output is flushed
+     */
+    public AsyncRenderer(Renderer renderer, int queueSize, int flushSize, long flushIntervalMillis) {
+        super(renderer.getName(), renderer.getDescription());
+        this.renderer = renderer;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+    }
+
+
+    /**
+     * Returns the wrapped renderer.
+     *
+     * @return The renderer
+     */
+    public Renderer getRenderer() {
+        return renderer;
+    }
+
+
+    @Override
+    public String getName() {
+        return renderer.getName();
+    }
+
+
+    @Override
+    public void setName(String name) {
+        renderer.setName(name);
+    }
+
+
+    @Override
+    public String getDescription() {
+        return renderer.getDescription();
+    }
+
+
+    @Override
+    public void setDescription(String description) {
+        renderer.setDescription(description);
+    }
+
+
+    @Override
+    public String defaultFileExtension() {
+        return renderer.defaultFileExtension();
+    }
+
+
+    @Override
+    public boolean isShowSuppressedViolations() {
+        return renderer.isShowSuppressedViolations();
+    }
+
+
+    @Override
+    public void setShowSuppressedViolations(boolean showSuppressedViolations) {
+        renderer.setShowSuppressedViolations(showSuppressedViolations);
+    }
+
+
+    @Override
+    public void start() throws IOException {
+        output = new CoalescingWriter(getWriter(), flushSize, flushIntervalNanos);
+        renderer.setWriter(output);
+
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                render();
+            }
+        }, "PMD renderer " + renderer.getName());
+        thread.setDaemon(true);
+        thread.start();
+
+        try {
+            started.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while starting " + renderer.getName());
+        }
+        checkFailure();
+    }
+
+
+    @Override
+    public void startFileAnalysis(DataSource dataSource) {
+        try {
+            queue.put(dataSource);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queuing a file for " + renderer.getName(), e);
+        }
+    }
+
+
+    @Override
+    public void renderFileReport(Report report) throws IOException {
+        checkFailure();
+        try {
+            queue.put(report);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while queuing a report for " + renderer.getName());
+        }
+    }
+
+
+    @Override
+    public void end() throws IOException {
+        try {
+            queue.put(END);
+            ended.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + renderer.getName());
+        }
+        checkFailure();
+    }
+
+
+    @Override
+    public void flush() {
+        try {
+            queue.put(FLUSH);
+            thread.join();
+            checkFailure();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while flushing " + renderer.getName(), e);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    /**
+     * Starts the renderer, renders the queued reports, and ends and flushes
+     * the renderer, on the rendering thread.
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private void render() {
+        TimeTracker.initThread();
+        try {
+            try {
+                renderer.start();
+            } catch (IOException | RuntimeException | Error e) {
+                failure.set(e);
+                return;
+            } finally {
+                started.countDown();
+            }
+
+            Object item;
+            while ((item = queue.take()) != FLUSH) {
+                if (item == END) {
+                    endRenderer();
+                    continue;
+                }
+                if (failure.get() != null) {
+                    // keep draining, so that the producers don't block
+                    continue;
+                }
+                try {
+                    if (item instanceof DataSource) {
+                        renderer.startFileAnalysis((DataSource) item);
+                    } else {
+                        try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.REPORTING,
+                                                                            renderer.getName())) {
+                            renderer.renderFileReport((Report) item);
+                        }
+                    }
+                } catch (IOException | RuntimeException | Error e) {
+                    failure.set(e);
+                }
+            }
+            renderer.flush();
+        } catch (IOException | RuntimeException | Error e) {
+            failure.set(e);
+        } catch (InterruptedException e) {
+            failure.set(new InterruptedIOException("The rendering thread of " + renderer.getName() + " was interrupted"));
+        } finally {
+            // releases the callers, if the thread stops early
+            ended.countDown();
+            TimeTracker.finishThread();
+        }
+    }
+
+
+    private void endRenderer() {
+        try {
+            if (failure.get() == null) {
+                renderer.end();
+                output.flushNow();
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            failure.set(e);
+        } finally {
+            ended.countDown();
+        }
+    }
+
+
+    private void checkFailure() throws IOException {
+        Throwable t = failure.get();
+        if (t instanceof IOException) {
+            throw (IOException) t;
+        } else if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        }
+    }
+
+
+    /**
+     * Buffers the output of the renderer, and only flushes it after enough
+     * characters or time.
+     */
+    private static final class CoalescingWriter extends Writer {
+
+        private final BufferedWriter out;
+        private final int flushSize;
+        private final long flushIntervalNanos;
+        private long unflushed;
+        private long lastFlush = System.nanoTime();
+
+
+        CoalescingWriter(Writer out, int flushSize, long flushIntervalNanos) {
+            this.out = new BufferedWriter(out, Math.min(flushSize, DEFAULT_FLUSH_SIZE));
+            this.flushSize = flushSize;
+            this.flushIntervalNanos = flushIntervalNanos;
+        }
+
+
+        @Override
+        public void write(int c) throws IOException {
+            out.write(c);
+            unflushed++;
+        }
+
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            out.write(cbuf, off, len);
+            unflushed += len;
+        }
+
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            out.write(str, off, len);
+            unflushed += len;
+        }
+
+
+        @Override
+        public void flush() throws IOException {
+            if (unflushed >= flushSize || System.nanoTime() - lastFlush >= flushIntervalNanos) {
+                flushNow();
+            }
+        }
+
+
+        void flushNow() throws IOException {
+            out.flush();
+            unflushed = 0;
+            lastFlush = System.nanoTime();
+        }
+
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
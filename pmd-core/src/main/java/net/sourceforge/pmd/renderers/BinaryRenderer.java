@@ -0,0 +1,235 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static net.sourceforge.pmd.renderers.BinaryReportFormat.writeLongVarint;
+import static net.sourceforge.pmd.renderers.BinaryReportFormat.writeString;
+import static net.sourceforge.pmd.renderers.BinaryReportFormat.writeVarint;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.util.datasource.DataSource;
+
+/**
+ * Renderer to a compact binary format, meant to be read by other programs
+ * with a {@link BinaryReportReader}. The filenames, rule names and messages
+ * are written once, in a string table, and the violations only refer to
+ * them by id; the positions are written as varints. The report ends with an
+ * index of the files, so that the violations of a file can be read without
+ * reading the whole report.
+ *
+ * <p>The format is described in {@link BinaryReportFormat}. The suppressed
+ * violations aren't written.
+ *
+ * <p>Since the format is binary, this renderer doesn't write to the
+ * {@link #setWriter(java.io.Writer) writer}, but to the stream given with
+ * {@link #setOutputStream(OutputStream)}.
+ *
+ * @since 6.6.0
+ */
+public class BinaryRenderer extends AbstractRenderer {
+
+    public static final String NAME = "binary";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private CountingOutputStream out;
+
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final Map<List<String>, Integer> ruleIds = new HashMap<>();
+    private final List<int[]> rules = new ArrayList<>();
+    private final List<int[]> errors = new ArrayList<>();
+    private final List<int[]> configErrors = new ArrayList<>();
+    private final Map<String, List<long[]>> records = new TreeMap<>();
+
+
+    public BinaryRenderer() {
+        super(NAME, "Compact binary format.");
+    }
+
+
+    @Override
+    public String defaultFileExtension() {
+        return "pmdb";
+    }
+
+
+    /**
+     * Sets the stream to which the report is written.
+     *
+     * @param stream The stream
+     */
+    public void setOutputStream(OutputStream stream) {
+        this.out = new CountingOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+    }
+
+
+    @Override
+    public void start() throws IOException {
+        if (out == null) {
+            throw new IllegalStateException("The binary renderer has no output stream");
+        }
+        out.write(BinaryReportFormat.MAGIC);
+        writeVarint(out, BinaryReportFormat.VERSION);
+    }
+
+
+    @Override
+    public void startFileAnalysis(DataSource dataSource) {
+        // the files are known from their violations
+    }
+
+
+    @Override
+    public void renderFileReport(Report report) throws IOException {
+        String filename = null;
+        long[] record = null;
+        for (RuleViolation rv : report) {
+            if (!rv.getFilename().equals(filename)) {
+                filename = rv.getFilename();
+                record = new long[] { out.getByteCount(), 0 };
+                addRecord(filename, record);
+            }
+            writeVarint(out, ruleId(rv.getRule()));
+            writeVarint(out, rv.getBeginLine());
+            writeVarint(out, rv.getBeginColumn());
+            writeVarint(out, rv.getEndLine() - rv.getBeginLine());
+            writeVarint(out, rv.getEndColumn());
+            writeVarint(out, stringId(rv.getDescription()));
+            writeVarint(out, optionalStringId(rv.getPackageName()));
+            writeVarint(out, optionalStringId(rv.getClassName()));
+            writeVarint(out, optionalStringId(rv.getMethodName()));
+            writeVarint(out, optionalStringId(rv.getVariableName()));
+            record[1]++;
+        }
+
+        for (Iterator<Report.ProcessingError> i = report.errors(); i.hasNext();) {
+            Report.ProcessingError error = i.next();
+            errors.add(new int[] { stringId(error.getFile()), stringId(error.getMsg()), stringId(error.getDetail()) });
+        }
+        for (Iterator<Report.ConfigurationError> i = report.configErrors(); i.hasNext();) {
+            Report.ConfigurationError error = i.next();
+            configErrors.add(new int[] { stringId(error.rule().getName()), stringId(error.issue()) });
+        }
+    }
+
+
+    @Override
+    public void end() throws IOException {
+        for (String filename : records.keySet()) {
+            stringId(filename);
+        }
+        long trailerOffset = out.getByteCount();
+
+        writeVarint(out, strings.size());
+        for (String s : strings) {
+            writeString(out, s);
+        }
+
+        writeTable(rules);
+        writeTable(errors);
+        writeTable(configErrors);
+
+        writeVarint(out, records.size());
+        for (Map.Entry<String, List<long[]>> file : records.entrySet()) {
+            writeVarint(out, stringIds.get(file.getKey()));
+            writeVarint(out, file.getValue().size());
+            for (long[] record : file.getValue()) {
+                writeLongVarint(out, record[0]);
+                writeVarint(out, (int) record[1]);
+            }
+        }
+
+        new DataOutputStream(out).writeLong(trailerOffset);
+        out.flush();
+    }
+
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+
+    private void writeTable(List<int[]> table) throws IOException {
+        writeVarint(out, table.size());
+        for (int[] row : table) {
+            for (int value : row) {
+                writeVarint(out, value);
+            }
+        }
+    }
+
+
+    private void addRecord(String filename, long[] record) {
+        List<long[]> fileRecords = records.get(filename);
+        if (fileRecords == null) {
+            fileRecords = new ArrayList<>();
+            records.put(filename, fileRecords);
+        }
+        fileRecords.add(record);
+    }
+
+
+    /**
+     * Rules are identified by their ruleset and name, since each thread
+     * uses its own copies of the rules.
+     */
+    private int ruleId(Rule rule) {
+        List<String> key = Arrays.asList(rule.getRuleSetName(), rule.getName());
+        Integer id = ruleIds.get(key);
+        if (id == null) {
+            id = rules.size();
+            ruleIds.put(key, id);
+            rules.add(new int[] {
+                stringId(rule.getName()),
+                optionalStringId(rule.getRuleSetName()),
+                optionalStringId(rule.getExternalInfoUrl()),
+                rule.getPriority().getPriority(),
+            });
+        }
+        return id;
+    }
+
+
+    private int stringId(String s) {
+        String value = s == null ? "" : s;
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(value, id);
+            strings.add(value);
+        }
+        return id;
+    }
+
+
+    private int optionalStringId(String s) {
+        return s == null || s.isEmpty() ? 0 : stringId(s) + 1;
+    }
+}
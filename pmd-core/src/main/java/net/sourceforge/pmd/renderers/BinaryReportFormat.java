@@ -0,0 +1,112 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants and encodings shared by the {@link BinaryRenderer} and the
+ * {@link BinaryReportReader}.
+ *
+ * <p>A binary report starts with the {@link #MAGIC} bytes and the
+ * {@link #VERSION}, followed by the records of violations. A record holds
+ * violations of a single file, and each violation is written as a sequence
+ * of varints: the rule id, the begin line, the begin column, the number of
+ * lines to the end line, the end column, the id of the description and the
+ * ids of the package, class, method and variable names, plus one, or 0 if
+ * there's none.
+ *
+ * <p>The trailer follows the records: the string table, the rule table
+ * (the name string id, the ruleset and external info url string ids plus
+ * one, and the priority), the processing errors (file, message and detail
+ * string ids), the configuration errors (rule name and message string ids),
+ * and the file index, sorted by filename: the filename string id, the number
+ * of records, and the offset and number of violations of each record. The
+ * report ends with the offset of the trailer, as a big-endian long.
+ */
+final class BinaryReportFormat {
+
+    static final byte[] MAGIC = { 'P', 'M', 'D', 'B' };
+    static final int VERSION = 1;
+    static final int TRAILER_OFFSET_SIZE = 8;
+
+    private BinaryReportFormat() {
+    }
+
+    /**
+     * Writes an int on 1 to 5 bytes, 7 bits at a time, the lowest first.
+     * Negative values take 5 bytes.
+     */
+    static void writeVarint(OutputStream stream, int value) throws IOException {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            stream.write(v & 0x7F | 0x80);
+            v >>>= 7;
+        }
+        stream.write(v);
+    }
+
+    static int readVarint(InputStream stream) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = stream.read();
+            if (b < 0) {
+                throw new EOFException("Truncated binary report");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in binary report");
+    }
+
+    static void writeLongVarint(OutputStream stream, long value) throws IOException {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            stream.write((int) (v & 0x7F | 0x80));
+            v >>>= 7;
+        }
+        stream.write((int) v);
+    }
+
+    static long readLongVarint(InputStream stream) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = stream.read();
+            if (b < 0) {
+                throw new EOFException("Truncated binary report");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in binary report");
+    }
+
+    static void writeString(OutputStream stream, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(stream, bytes.length);
+        stream.write(bytes);
+    }
+
+    static String readString(InputStream stream) throws IOException {
+        byte[] bytes = new byte[readVarint(stream)];
+        int read = 0;
+        while (read < bytes.length) {
+            int n = stream.read(bytes, read, bytes.length - read);
+            if (n < 0) {
+                throw new EOFException("Truncated binary report");
+            }
+            read += n;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
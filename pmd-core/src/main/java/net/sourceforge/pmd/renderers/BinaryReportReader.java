@@ -0,0 +1,410 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static net.sourceforge.pmd.renderers.BinaryReportFormat.readLongVarint;
+import static net.sourceforge.pmd.renderers.BinaryReportFormat.readString;
+import static net.sourceforge.pmd.renderers.BinaryReportFormat.readVarint;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.sourceforge.pmd.RulePriority;
+
+/**
+ * Reads a report written by the {@link BinaryRenderer}. Opening a report
+ * only reads its trailer: the string and rule tables, the errors and the
+ * file index. The violations are read file by file, with
+ * {@link #readViolations(String)}, so that the memory used only depends on
+ * the largest file, and not on the size of the report.
+ *
+ * <p>A reader isn't thread-safe.
+ *
+ * @since 6.6.0
+ */
+public class BinaryReportReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final RandomAccessFile file;
+    private final String[] strings;
+    private final int[][] rules;
+    private final List<ProcessingError> errors;
+    private final List<ConfigurationError> configErrors;
+    private final Map<String, long[]> index = new TreeMap<>();
+    private int violationCount;
+
+
+    /**
+     * Opens a binary report, and reads its trailer.
+     *
+     * @param report The report
+     *
+     * @throws IOException If the report can't be read, or isn't a binary report
+     */
+    public BinaryReportReader(File report) throws IOException {
+        file = new RandomAccessFile(report, "r");
+        try {
+            byte[] magic = new byte[BinaryReportFormat.MAGIC.length];
+            if (file.length() < magic.length + BinaryReportFormat.TRAILER_OFFSET_SIZE) {
+                throw new IOException("Not a binary PMD report: " + report);
+            }
+            file.readFully(magic);
+            if (!Arrays.equals(magic, BinaryReportFormat.MAGIC)) {
+                throw new IOException("Not a binary PMD report: " + report);
+            }
+            int version = readVarint(openAt(file.getFilePointer()));
+            if (version != BinaryReportFormat.VERSION) {
+                throw new IOException("Unsupported binary PMD report version " + version + ": " + report);
+            }
+
+            file.seek(file.length() - BinaryReportFormat.TRAILER_OFFSET_SIZE);
+            InputStream in = openAt(file.readLong());
+
+            strings = new String[readVarint(in)];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readString(in);
+            }
+
+            rules = new int[readVarint(in)][];
+            for (int i = 0; i < rules.length; i++) {
+                rules[i] = new int[] { readVarint(in), readVarint(in), readVarint(in), readVarint(in) };
+            }
+
+            int errorCount = readVarint(in);
+            errors = new ArrayList<>(errorCount);
+            for (int i = 0; i < errorCount; i++) {
+                errors.add(new ProcessingError(strings[readVarint(in)], strings[readVarint(in)],
+                                               strings[readVarint(in)]));
+            }
+
+            int configErrorCount = readVarint(in);
+            configErrors = new ArrayList<>(configErrorCount);
+            for (int i = 0; i < configErrorCount; i++) {
+                configErrors.add(new ConfigurationError(strings[readVarint(in)], strings[readVarint(in)]));
+            }
+
+            int fileCount = readVarint(in);
+            for (int i = 0; i < fileCount; i++) {
+                String filename = strings[readVarint(in)];
+                // offsets at even indexes, violation counts at odd indexes
+                long[] records = new long[2 * readVarint(in)];
+                for (int j = 0; j < records.length; j += 2) {
+                    records[j] = readLongVarint(in);
+                    records[j + 1] = readVarint(in);
+                    violationCount += records[j + 1];
+                }
+                index.put(filename, records);
+            }
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Returns the names of the files which have violations, sorted.
+     *
+     * @return The filenames
+     */
+    public List<String> getFilenames() {
+        return Collections.unmodifiableList(new ArrayList<>(index.keySet()));
+    }
+
+
+    /**
+     * Returns the number of violations in the report.
+     *
+     * @return The number of violations
+     */
+    public int getViolationCount() {
+        return violationCount;
+    }
+
+
+    /**
+     * Returns the number of violations of a file.
+     *
+     * @param filename The name of the file
+     *
+     * @return The number of violations, 0 if the file isn't in the report
+     */
+    public int getViolationCount(String filename) {
+        long[] records = index.get(filename);
+        int count = 0;
+        if (records != null) {
+            for (int i = 1; i < records.length; i += 2) {
+                count += records[i];
+            }
+        }
+        return count;
+    }
+
+
+    /**
+     * Reads the violations of a file, in the order they were rendered.
+     *
+     * @param filename The name of the file
+     *
+     * @return The violations, empty if the file isn't in the report
+     *
+     * @throws IOException If the report can't be read
+     */
+    public List<Violation> readViolations(String filename) throws IOException {
+        long[] records = index.get(filename);
+        if (records == null) {
+            return Collections.emptyList();
+        }
+
+        List<Violation> violations = new ArrayList<>(getViolationCount(filename));
+        for (int i = 0; i < records.length; i += 2) {
+            InputStream in = openAt(records[i]);
+            for (long j = records[i + 1]; j > 0; j--) {
+                int[] rule = rules[readVarint(in)];
+                int beginLine = readVarint(in);
+                int beginColumn = readVarint(in);
+                int endLine = beginLine + readVarint(in);
+                int endColumn = readVarint(in);
+                violations.add(new Violation(filename, strings[rule[0]], optionalString(rule[1]),
+                        optionalString(rule[2]), RulePriority.valueOf(rule[3]), beginLine, beginColumn, endLine,
+                        endColumn, strings[readVarint(in)], optionalString(readVarint(in)),
+                        optionalString(readVarint(in)), optionalString(readVarint(in)),
+                        optionalString(readVarint(in))));
+            }
+        }
+        return violations;
+    }
+
+
+    /**
+     * Returns the processing errors of the report.
+     *
+     * @return The processing errors
+     */
+    public List<ProcessingError> getProcessingErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+
+    /**
+     * Returns the configuration errors of the report.
+     *
+     * @return The configuration errors
+     */
+    public List<ConfigurationError> getConfigurationErrors() {
+        return Collections.unmodifiableList(configErrors);
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+
+    private InputStream openAt(long offset) throws IOException {
+        return new BufferedInputStream(Channels.newInputStream(file.getChannel().position(offset)), BUFFER_SIZE);
+    }
+
+
+    private String optionalString(int id) {
+        return id == 0 ? null : strings[id - 1];
+    }
+
+
+    /**
+     * A violation read from a binary report.
+     */
+    public static final class Violation {
+
+        private final String filename;
+        private final String ruleName;
+        private final String ruleSetName;
+        private final String externalInfoUrl;
+        private final RulePriority priority;
+        private final int beginLine;
+        private final int beginColumn;
+        private final int endLine;
+        private final int endColumn;
+        private final String description;
+        private final String packageName;
+        private final String className;
+        private final String methodName;
+        private final String variableName;
+
+
+        Violation(String filename, String ruleName, String ruleSetName, String externalInfoUrl, RulePriority priority,
+                  int beginLine, int beginColumn, int endLine, int endColumn, String description, String packageName,
+                  String className, String methodName, String variableName) {
+            this.filename = filename;
+            this.ruleName = ruleName;
+            this.ruleSetName = ruleSetName;
+            this.externalInfoUrl = externalInfoUrl;
+            this.priority = priority;
+            this.beginLine = beginLine;
+            this.beginColumn = beginColumn;
+            this.endLine = endLine;
+            this.endColumn = endColumn;
+            this.description = description;
+            this.packageName = packageName;
+            this.className = className;
+            this.methodName = methodName;
+            this.variableName = variableName;
+        }
+
+
+        public String getFilename() {
+            return filename;
+        }
+
+
+        public String getRuleName() {
+            return ruleName;
+        }
+
+
+        /** Returns the name of the ruleset of the rule, or null. */
+        public String getRuleSetName() {
+            return ruleSetName;
+        }
+
+
+        /** Returns the external info url of the rule, or null. */
+        public String getExternalInfoUrl() {
+            return externalInfoUrl;
+        }
+
+
+        public RulePriority getPriority() {
+            return priority;
+        }
+
+
+        public int getBeginLine() {
+            return beginLine;
+        }
+
+
+        public int getBeginColumn() {
+            return beginColumn;
+        }
+
+
+        public int getEndLine() {
+            return endLine;
+        }
+
+
+        public int getEndColumn() {
+            return endColumn;
+        }
+
+
+        public String getDescription() {
+            return description;
+        }
+
+
+        /** Returns the package name, or null. */
+        public String getPackageName() {
+            return packageName;
+        }
+
+
+        /** Returns the class name, or null. */
+        public String getClassName() {
+            return className;
+        }
+
+
+        /** Returns the method name, or null. */
+        public String getMethodName() {
+            return methodName;
+        }
+
+
+        /** Returns the variable name, or null. */
+        public String getVariableName() {
+            return variableName;
+        }
+
+
+        @Override
+        public String toString() {
+            return filename + ':' + beginLine + ":\t" + ruleName + ":\t" + description;
+        }
+    }
+
+
+    /**
+     * A processing error read from a binary report.
+     */
+    public static final class ProcessingError {
+
+        private final String filename;
+        private final String message;
+        private final String detail;
+
+
+        ProcessingError(String filename, String message, String detail) {
+            this.filename = filename;
+            this.message = message;
+            this.detail = detail;
+        }
+
+
+        public String getFilename() {
+            return filename;
+        }
+
+
+        public String getMessage() {
+            return message;
+        }
+
+
+        public String getDetail() {
+            return detail;
+        }
+    }
+
+
+    /**
+     * A configuration error read from a binary report.
+     */
+    public static final class ConfigurationError {
+
+        private final String ruleName;
+        private final String message;
+
+
+        ConfigurationError(String ruleName, String message) {
+            this.ruleName = ruleName;
+            this.message = message;
+        }
+
+
+        public String getRuleName() {
+            return ruleName;
+        }
+
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
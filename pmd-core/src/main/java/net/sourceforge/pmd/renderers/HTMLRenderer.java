@@ -58,18 +58,50 @@ public class HTMLRenderer extends AbstractIncrementingRenderer {
      * @throws IOException
      */
     public void renderBody(Writer writer, Report report) throws IOException {
+        startBody(writer);
+        glomRuleViolations(writer, report.iterator());
+        endBody(writer, report);
+    }
+
+    /**
+     * Reads the link and line prefixes, which must be done before the
+     * violations are rendered.
+     */
+    void initPrefixes() {
         linkPrefix = getProperty(LINK_PREFIX);
         linePrefix = getProperty(LINE_PREFIX);
+    }
+
+    /**
+     * Writes the beginning of the body, up to the header of the violations
+     * table.
+     */
+    void startBody(Writer writer) throws IOException {
+        initPrefixes();
 
         writer.write("<center><h3>PMD report</h3></center>");
         writer.write("<center><h3>Problems found</h3></center>");
         writer.write("<table align=\"center\" cellspacing=\"0\" cellpadding=\"3\"><tr>" + PMD.EOL
                 + "<th>#</th><th>File</th><th>Line</th><th>Problem</th></tr>" + PMD.EOL);
         setWriter(writer);
-        renderFileReport(report);
+    }
+
+    /**
+     * Writes the end of the body, after the rows of the violations: the
+     * errors and suppressed violations of the report.
+     */
+    void endBody(Writer writer, Report report) throws IOException {
+        for (Iterator<Report.ProcessingError> i = report.errors(); i.hasNext();) {
+            errors.add(i.next());
+        }
+        for (Iterator<Report.ConfigurationError> i = report.configErrors(); i.hasNext();) {
+            configErrors.add(i.next());
+        }
+
         writer.write("</table>");
         glomProcessingErrors(writer, errors);
         if (showSuppressedViolations) {
+            suppressed.addAll(report.getSuppressedRuleViolations());
             glomSuppressions(writer, suppressed);
         }
         glomConfigurationErrors(writer, configErrors);
@@ -104,36 +136,51 @@ public class HTMLRenderer extends AbstractIncrementingRenderer {
     }
 
     private void glomRuleViolations(Writer writer, Iterator<RuleViolation> violations) throws IOException {
+        while (violations.hasNext()) {
+            writeViolation(writer, renderViolation(violations.next()));
+        }
+    }
 
+    /**
+     * Renders the cells of the row of a violation, except its number. They
+     * don't depend on the other violations, so they can be rendered before
+     * the rows are written.
+     */
+    String renderViolation(RuleViolation rv) {
         StringBuilder buf = new StringBuilder(500);
+        buf.append("<td width=\"*%\">"
+                + maybeWrap(StringEscapeUtils.escapeHtml4(rv.getFilename()),
+                        linePrefix == null ? "" : linePrefix + Integer.toString(rv.getBeginLine()))
+                + "</td>" + PMD.EOL);
+        buf.append("<td align=\"center\" width=\"5%\">" + Integer.toString(rv.getBeginLine()) + "</td>" + PMD.EOL);
 
-        while (violations.hasNext()) {
-            RuleViolation rv = violations.next();
-            buf.setLength(0);
-            buf.append("<tr");
-            if (colorize) {
-                buf.append(" bgcolor=\"lightgrey\"");
-            }
-            colorize = !colorize;
-            buf.append("> " + PMD.EOL);
-            buf.append("<td align=\"center\">" + violationCount + "</td>" + PMD.EOL);
-            buf.append("<td width=\"*%\">"
-                    + maybeWrap(StringEscapeUtils.escapeHtml4(rv.getFilename()),
-                            linePrefix == null ? "" : linePrefix + Integer.toString(rv.getBeginLine()))
-                    + "</td>" + PMD.EOL);
-            buf.append("<td align=\"center\" width=\"5%\">" + Integer.toString(rv.getBeginLine()) + "</td>" + PMD.EOL);
-
-            String d = StringEscapeUtils.escapeHtml4(rv.getDescription());
-
-            String infoUrl = rv.getRule().getExternalInfoUrl();
-            if (StringUtils.isNotBlank(infoUrl)) {
-                d = "<a href=\"" + infoUrl + "\">" + d + "</a>";
-            }
-            buf.append("<td width=\"*\">" + d + "</td>" + PMD.EOL);
-            buf.append("</tr>" + PMD.EOL);
-            writer.write(buf.toString());
-            violationCount++;
+        String d = StringEscapeUtils.escapeHtml4(rv.getDescription());
+
+        String infoUrl = rv.getRule().getExternalInfoUrl();
+        if (StringUtils.isNotBlank(infoUrl)) {
+            d = "<a href=\"" + infoUrl + "\">" + d + "</a>";
+        }
+        buf.append("<td width=\"*\">" + d + "</td>" + PMD.EOL);
+        return buf.toString();
+    }
+
+    /**
+     * Writes the row of a violation, numbered and colored after the rows
+     * written before.
+     */
+    void writeViolation(Writer writer, String cells) throws IOException {
+        StringBuilder buf = new StringBuilder(cells.length() + 100);
+        buf.append("<tr");
+        if (colorize) {
+            buf.append(" bgcolor=\"lightgrey\"");
         }
+        colorize = !colorize;
+        buf.append("> " + PMD.EOL);
+        buf.append("<td align=\"center\">" + violationCount + "</td>" + PMD.EOL);
+        buf.append(cells);
+        buf.append("</tr>" + PMD.EOL);
+        writer.write(buf.toString());
+        violationCount++;
     }
 
     private void glomProcessingErrors(Writer writer, List<Report.ProcessingError> errors) throws IOException {
@@ -0,0 +1,234 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Iterator;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.PMDVersion;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleViolation;
+
+/**
+ * Renderer to JSON format. The violations are written as they come, field by
+ * field, straight to the writer: no object is created per violation, and the
+ * strings are escaped while they're written, so that the memory used doesn't
+ * depend on the size of the report.
+ *
+ * <p>The report is an object with the version of the format and of PMD, the
+ * list of the files with their violations, and the lists of the suppressed
+ * violations, of the processing errors and of the configuration errors.
+ *
+ * @since 6.6.0
+ */
+public class JSONRenderer extends AbstractIncrementingRenderer {
+
+    public static final String NAME = "json";
+
+    private static final int FORMAT_VERSION = 0;
+    private static final String HEX_DIGITS = "0123456789abcdef";
+    private static final String VIOLATION_INDENT = "          ";
+    private static final String ELEMENT_INDENT = "      ";
+
+    private String filename;
+    private boolean firstViolation;
+
+
+    public JSONRenderer() {
+        super(NAME, "JSON format.");
+    }
+
+    @Override
+    public String defaultFileExtension() {
+        return "json";
+    }
+
+    @Override
+    public void start() throws IOException {
+        filename = null;
+        Writer writer = getWriter();
+        writer.write("{" + PMD.EOL);
+        writer.write("  \"formatVersion\": " + FORMAT_VERSION + "," + PMD.EOL);
+        writer.write("  \"pmdVersion\": ");
+        writeString(writer, PMDVersion.VERSION);
+        writer.write("," + PMD.EOL);
+        writer.write("  \"timestamp\": ");
+        writeString(writer, new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").format(new Date()));
+        writer.write("," + PMD.EOL);
+        writer.write("  \"files\": [");
+    }
+
+    @Override
+    public void renderFileViolations(Iterator<RuleViolation> violations) throws IOException {
+        Writer writer = getWriter();
+        while (violations.hasNext()) {
+            RuleViolation rv = violations.next();
+            if (!rv.getFilename().equals(filename)) {
+                if (filename != null) {
+                    endFile(writer);
+                    writer.write(',');
+                }
+                filename = rv.getFilename();
+                writer.write(PMD.EOL + "    {" + PMD.EOL + "      \"filename\": ");
+                writeString(writer, filename);
+                writer.write("," + PMD.EOL + "      \"violations\": [");
+                firstViolation = true;
+            }
+
+            writer.write(firstViolation ? PMD.EOL : "," + PMD.EOL);
+            firstViolation = false;
+            writer.write("        {" + PMD.EOL);
+            writeField(writer, VIOLATION_INDENT, "beginline", rv.getBeginLine());
+            writeField(writer, VIOLATION_INDENT, "begincolumn", rv.getBeginColumn());
+            writeField(writer, VIOLATION_INDENT, "endline", rv.getEndLine());
+            writeField(writer, VIOLATION_INDENT, "endcolumn", rv.getEndColumn());
+            writeField(writer, VIOLATION_INDENT, "description", rv.getDescription());
+            writeField(writer, VIOLATION_INDENT, "rule", rv.getRule().getName());
+            writeField(writer, VIOLATION_INDENT, "ruleset", rv.getRule().getRuleSetName());
+            maybeWriteField(writer, VIOLATION_INDENT, "package", rv.getPackageName());
+            maybeWriteField(writer, VIOLATION_INDENT, "class", rv.getClassName());
+            maybeWriteField(writer, VIOLATION_INDENT, "method", rv.getMethodName());
+            maybeWriteField(writer, VIOLATION_INDENT, "variable", rv.getVariableName());
+            maybeWriteField(writer, VIOLATION_INDENT, "externalInfoUrl", rv.getRule().getExternalInfoUrl());
+            writer.write(VIOLATION_INDENT + "\"priority\": " + rv.getRule().getPriority().getPriority() + PMD.EOL);
+            writer.write("        }");
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        Writer writer = getWriter();
+        if (filename != null) {
+            endFile(writer);
+            writer.write(PMD.EOL + "  ");
+        }
+        writer.write("]," + PMD.EOL);
+
+        writer.write("  \"suppressedViolations\": [");
+        boolean first = true;
+        if (showSuppressedViolations) {
+            for (Report.SuppressedViolation s : suppressed) {
+                startElement(writer, first);
+                first = false;
+                writeField(writer, ELEMENT_INDENT, "filename", s.getRuleViolation().getFilename());
+                writeField(writer, ELEMENT_INDENT, "suppressiontype", s.suppressedByNOPMD() ? "nopmd" : "annotation");
+                writeField(writer, ELEMENT_INDENT, "msg", s.getRuleViolation().getDescription());
+                writeLastField(writer, "usermsg", s.getUserMessage() == null ? "" : s.getUserMessage());
+            }
+        }
+        endArray(writer, first);
+
+        writer.write("  \"processingErrors\": [");
+        first = true;
+        for (Report.ProcessingError pe : errors) {
+            startElement(writer, first);
+            first = false;
+            writeField(writer, ELEMENT_INDENT, "filename", pe.getFile());
+            writeField(writer, ELEMENT_INDENT, "message", pe.getMsg());
+            writeLastField(writer, "detail", pe.getDetail());
+        }
+        endArray(writer, first);
+
+        writer.write("  \"configurationErrors\": [");
+        first = true;
+        for (Report.ConfigurationError ce : configErrors) {
+            startElement(writer, first);
+            first = false;
+            writeField(writer, ELEMENT_INDENT, "rule", ce.rule().getName());
+            writeLastField(writer, "message", ce.issue());
+        }
+        writer.write(first ? "]" : PMD.EOL + "  ]");
+        writer.write(PMD.EOL + "}" + PMD.EOL);
+    }
+
+    private void endFile(Writer writer) throws IOException {
+        writer.write(PMD.EOL + "      ]" + PMD.EOL + "    }");
+    }
+
+    private void startElement(Writer writer, boolean first) throws IOException {
+        writer.write(first ? PMD.EOL : "," + PMD.EOL);
+        writer.write("    {" + PMD.EOL);
+    }
+
+    private void endArray(Writer writer, boolean empty) throws IOException {
+        writer.write(empty ? "]," + PMD.EOL : PMD.EOL + "  ]," + PMD.EOL);
+    }
+
+    private void writeField(Writer writer, String indent, String name, int value) throws IOException {
+        writer.write(indent + '"' + name + "\": " + value + "," + PMD.EOL);
+    }
+
+    private void writeField(Writer writer, String indent, String name, String value) throws IOException {
+        writer.write(indent + '"' + name + "\": ");
+        writeString(writer, value);
+        writer.write("," + PMD.EOL);
+    }
+
+    private void maybeWriteField(Writer writer, String indent, String name, String value) throws IOException {
+        if (value != null && value.length() > 0) {
+            writeField(writer, indent, name, value);
+        }
+    }
+
+    /** Writes the last field of an element of the lists written at the end. */
+    private void writeLastField(Writer writer, String name, String value) throws IOException {
+        writer.write(ELEMENT_INDENT + '"' + name + "\": ");
+        writeString(writer, value);
+        writer.write(PMD.EOL + "    }");
+    }
+
+    /**
+     * Writes a JSON string. The runs of characters which don't need to be
+     * escaped are written as they are, without copying the string.
+     */
+    private static void writeString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= ' ' && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+
+            writer.write(value, start, i - start);
+            start = i + 1;
+            switch (c) {
+            case '"':
+                writer.write("\\\"");
+                break;
+            case '\\':
+                writer.write("\\\\");
+                break;
+            case '\n':
+                writer.write("\\n");
+                break;
+            case '\r':
+                writer.write("\\r");
+                break;
+            case '\t':
+                writer.write("\\t");
+                break;
+            default:
+                writer.write("\\u");
+                writer.write(HEX_DIGITS.charAt(c >> 12 & 0xF));
+                writer.write(HEX_DIGITS.charAt(c >> 8 & 0xF));
+                writer.write(HEX_DIGITS.charAt(c >> 4 & 0xF));
+                writer.write(HEX_DIGITS.charAt(c & 0xF));
+                break;
+            }
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+}
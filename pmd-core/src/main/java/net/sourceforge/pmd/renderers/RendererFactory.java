@@ -31,6 +31,7 @@ public final class RendererFactory {
         Map<String, Class<? extends Renderer>> map = new TreeMap<>();
         map.put(CodeClimateRenderer.NAME, CodeClimateRenderer.class);
         map.put(XMLRenderer.NAME, XMLRenderer.class);
+        map.put(JSONRenderer.NAME, JSONRenderer.class);
         map.put(IDEAJRenderer.NAME, IDEAJRenderer.class);
         map.put(TextColorRenderer.NAME, TextColorRenderer.class);
         map.put(TextRenderer.NAME, TextRenderer.class);
@@ -43,6 +44,7 @@ public final class RendererFactory {
         map.put(SummaryHTMLRenderer.NAME, SummaryHTMLRenderer.class);
         map.put(VBHTMLRenderer.NAME, VBHTMLRenderer.class);
         map.put(EmptyRenderer.NAME, EmptyRenderer.class);
+        map.put(BinaryRenderer.NAME, BinaryRenderer.class);
         REPORT_FORMAT_TO_RENDERER = Collections.unmodifiableMap(map);
     }
 
@@ -0,0 +1,509 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.util.IOUtil;
+import net.sourceforge.pmd.util.datasource.DataSource;
+
+/**
+ * Splits the report in several files, a shard per input path, module or
+ * package, so that the report of a large code base can be loaded a part at a
+ * time. Each shard is written by its own renderer of the report format, to a
+ * file of the report directory named after the directory of the shard,
+ * relative to the common parent of the input paths, such as
+ * {@code moduleA.src.main.java.xml}.
+ *
+ * <p>The violations and processing errors of a file report are routed to the
+ * shard of their file, and the shards are rendered concurrently, on a pool of
+ * threads. The reports of a shard are rendered one at a time, in the order in
+ * which they were received. The configuration errors aren't about a file, so
+ * they're rendered in each shard. The violations of the files which aren't in
+ * any input path are rendered in the shard {@value #OTHER_SHARD}.
+ *
+ * <p>When the filenames are relative to the input paths (short names), the
+ * input path of a file is the first one in which it exists.
+ *
+ * <p>The shards are closed when the rendering ends, or as soon as a shard
+ * fails to render.
+ *
+ * @since 6.6.0
+ */
+public class ShardedRenderer extends AbstractRenderer {
+
+    /** Default number of file reports waiting to be rendered. */
+    public static final int DEFAULT_QUEUE_SIZE = 256;
+
+    /** Name of the shard of the files which aren't in any input path. */
+    public static final String OTHER_SHARD = "other";
+
+    private final String reportFormat;
+    private final Properties properties;
+    private final File directory;
+    private final ShardBy shardBy;
+    private final List<File> roots = new ArrayList<>();
+    private final File base;
+    private final String extension;
+    private final int threads;
+    private final int queueSize;
+    private final Semaphore pending;
+
+    private final Map<String, Shard> shards = new TreeMap<>();
+    private final Map<String, Shard> shardsOfFiles = new HashMap<>();
+    private final List<Report.ConfigurationError> configErrors = new ArrayList<>();
+    private ExecutorService executor;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+
+    /**
+     * How the files are routed to the shards.
+     */
+    public enum ShardBy {
+        /** A shard per input path. */
+        ROOT,
+        /** A shard per directory directly in an input path. */
+        MODULE,
+        /** A shard per directory containing files, for example a Java package. */
+        PACKAGE
+    }
+
+
+    /**
+     * Creates a sharded renderer, which renders the shards on as many threads
+     * as there are processors.
+     *
+     * @param reportFormat The format of the shards, as given to the {@link RendererFactory}
+     * @param properties   The properties of the renderers of the shards
+     * @param directory    The directory in which the shards are written
+     * @param shardBy      How the files are routed to the shards
+     * @param inputPaths   The comma separated input paths of the analysis
+     */
+    public ShardedRenderer(String reportFormat, Properties properties, File directory, ShardBy shardBy,
+                           String inputPaths) {
+        this(reportFormat, properties, directory, shardBy, inputPaths, Runtime.getRuntime().availableProcessors(),
+             DEFAULT_QUEUE_SIZE);
+    }
+
+
+    /**
+     * Creates a sharded renderer.
+     *
+     * @param reportFormat The format of the shards, as given to the {@link RendererFactory}
+     * @param properties   The properties of the renderers of the shards
+     * @param directory    The directory in which the shards are written
+     * @param shardBy      How the files are routed to the shards
+     * @param inputPaths   The comma separated input paths of the analysis
+     * @param threads      The number of threads which render the shards
+     * @param queueSize    The maximum number of file reports waiting to be rendered
+     */
+    public ShardedRenderer(String reportFormat, Properties properties, File directory, ShardBy shardBy,
+                           String inputPaths, int threads, int queueSize) {
+        super("sharded", "Sharded report");
+        Renderer prototype = RendererFactory.createRenderer(reportFormat, properties);
+        this.name = prototype.getName();
+        this.description = prototype.getDescription();
+        this.extension = prototype.defaultFileExtension();
+        this.reportFormat = reportFormat;
+        this.properties = properties;
+        this.directory = directory;
+        this.shardBy = shardBy;
+        this.threads = Math.max(1, threads);
+        this.queueSize = queueSize;
+        this.pending = new Semaphore(queueSize);
+
+        if (inputPaths != null) {
+            for (String path : inputPaths.split(",")) {
+                File root = new File(path.trim());
+                try {
+                    roots.add(root.getCanonicalFile());
+                } catch (IOException e) {
+                    roots.add(root.getAbsoluteFile());
+                }
+            }
+        }
+        base = commonParent(roots);
+    }
+
+
+    @Override
+    public String defaultFileExtension() {
+        return extension;
+    }
+
+
+    /**
+     * Returns the names of the shards written so far.
+     *
+     * @return The names of the shards, sorted
+     */
+    public List<String> getShardNames() {
+        return new ArrayList<>(shards.keySet());
+    }
+
+
+    @Override
+    public void start() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create the report directory " + directory);
+        }
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "PMD renderer " + name + " shards " + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+
+    @Override
+    public void startFileAnalysis(DataSource dataSource) {
+        // the file is only known to be in a shard once it has a report
+    }
+
+
+    @Override
+    public void renderFileReport(Report report) throws IOException {
+        if (failure.get() != null) {
+            abort();
+        }
+
+        Map<Shard, Report> parts = new LinkedHashMap<>();
+        for (RuleViolation violation : report) {
+            part(parts, violation.getFilename()).addRuleViolation(violation);
+        }
+        for (Report.SuppressedViolation suppressed : report.getSuppressedRuleViolations()) {
+            part(parts, suppressed.getRuleViolation().getFilename())
+                .getSuppressedRuleViolations().add(suppressed);
+        }
+        for (Iterator<Report.ProcessingError> i = report.errors(); i.hasNext();) {
+            Report.ProcessingError error = i.next();
+            part(parts, error.getFile()).addError(error);
+        }
+        for (Iterator<Report.ConfigurationError> i = report.configErrors(); i.hasNext();) {
+            configErrors.add(i.next());
+        }
+
+        for (Map.Entry<Shard, Report> part : parts.entrySet()) {
+            try {
+                pending.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while queuing a report for the shards");
+            }
+            part.getKey().render(part.getValue());
+        }
+    }
+
+
+    @Override
+    public void end() throws IOException {
+        try {
+            // waits for the queued reports
+            pending.acquire(queueSize);
+            pending.release(queueSize);
+            checkFailure();
+
+            if (shards.isEmpty() && !configErrors.isEmpty()) {
+                shard(OTHER_SHARD);
+            }
+            for (final Shard shard : shards.values()) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (!configErrors.isEmpty()) {
+                                Report report = new Report();
+                                for (Report.ConfigurationError error : configErrors) {
+                                    report.addConfigError(error);
+                                }
+                                shard.renderer.renderFileReport(report);
+                            }
+                            shard.renderer.end();
+                        } catch (IOException | RuntimeException | Error e) {
+                            failure.set(e);
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the shards");
+        } finally {
+            executor.shutdownNow();
+            closeShards();
+        }
+        checkFailure();
+    }
+
+
+    @Override
+    public void flush() {
+        // the shards are closed at the end
+        closeShards();
+    }
+
+
+    /** Waits for the shards being rendered, closes them and throws the failure. */
+    private void abort() throws IOException {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the shards");
+        } finally {
+            closeShards();
+        }
+        checkFailure();
+    }
+
+
+    /** Flushes and closes the shards which aren't closed yet, the first error is kept as failure. */
+    private void closeShards() {
+        for (Shard shard : shards.values()) {
+            try {
+                shard.close();
+            } catch (IOException | RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+
+    private Report part(Map<Shard, Report> parts, String filename) throws IOException {
+        Shard shard = shardsOfFiles.get(filename);
+        if (shard == null) {
+            shard = shard(shardName(filename));
+            shardsOfFiles.put(filename, shard);
+        }
+        Report part = parts.get(shard);
+        if (part == null) {
+            part = new Report();
+            parts.put(shard, part);
+        }
+        return part;
+    }
+
+
+    /** Returns the shard with the given name, which is started the first time. */
+    private Shard shard(String shardName) throws IOException {
+        Shard shard = shards.get(shardName);
+        if (shard == null) {
+            Renderer renderer = RendererFactory.createRenderer(reportFormat, properties);
+            renderer.setShowSuppressedViolations(showSuppressedViolations);
+            String file = new File(directory, shardName + "." + extension).getPath();
+            if (renderer instanceof BinaryRenderer) {
+                ((BinaryRenderer) renderer).setOutputStream(IOUtil.createOutputStream(file));
+            } else {
+                renderer.setWriter(IOUtil.createWriter(file));
+            }
+            try {
+                renderer.start();
+            } catch (IOException | RuntimeException e) {
+                try {
+                    renderer.flush();
+                } catch (IOException | RuntimeException closeError) {
+                    e.addSuppressed(closeError);
+                }
+                throw e;
+            }
+            shard = new Shard(renderer);
+            shards.put(shardName, shard);
+        }
+        return shard;
+    }
+
+
+    /**
+     * Returns the name of the shard of a file: the path of the directory of
+     * the shard relative to the common parent of the input paths, with dots
+     * instead of the separators.
+     */
+    String shardName(String filename) {
+        if (filename == null) {
+            return OTHER_SHARD;
+        }
+        for (File root : roots) {
+            String relative = relativize(root, filename);
+            if (relative != null) {
+                return nameOf(shardDirectory(root, relative));
+            }
+        }
+        return OTHER_SHARD;
+    }
+
+
+    private File shardDirectory(File root, String relative) {
+        String[] parts = relative.split("[/\\\\]");
+        if (parts.length < 2 || shardBy == ShardBy.ROOT) {
+            return root;
+        } else if (shardBy == ShardBy.MODULE) {
+            return new File(root, parts[0]);
+        }
+        return new File(root, relative).getParentFile();
+    }
+
+
+    private String nameOf(File shardDirectory) {
+        String path = shardDirectory.getPath();
+        if (base != null) {
+            path = path.substring(base.getPath().length());
+        }
+        String name = path.replaceAll("^[/\\\\]+", "").replaceAll("[/\\\\]", ".").replaceAll("[^A-Za-z0-9._-]", "_");
+        return name.isEmpty() ? OTHER_SHARD : name;
+    }
+
+
+    /**
+     * Returns the path of the file relative to the input path, or null if
+     * it's not in the input path.
+     */
+    private static String relativize(File root, String filename) {
+        File file = new File(filename);
+        if (file.isAbsolute()) {
+            String path = file.getPath();
+            String rootPath = root.getPath();
+            if (path.equals(rootPath)) {
+                return "";
+            }
+            String prefix = rootPath.endsWith(File.separator) ? rootPath : rootPath + File.separator;
+            return path.startsWith(prefix) ? path.substring(prefix.length()) : null;
+        }
+
+        // short names are relative to their input path
+        if (root.isFile()) {
+            return root.getName().equals(file.getName()) ? "" : null;
+        }
+        return new File(root, filename).exists() ? filename : null;
+    }
+
+
+    /** Returns the deepest directory which contains the parents of all the input paths. */
+    private static File commonParent(List<File> roots) {
+        File common = null;
+        for (File root : roots) {
+            File parent = root.getParentFile();
+            if (parent == null) {
+                return null;
+            }
+            if (common == null) {
+                common = parent;
+            }
+            while (common != null && !isAncestor(common, parent)) {
+                common = common.getParentFile();
+            }
+            if (common == null) {
+                return null;
+            }
+        }
+        return common;
+    }
+
+
+    private static boolean isAncestor(File directory, File file) {
+        String path = directory.getPath();
+        String prefix = path.endsWith(File.separator) ? path : path + File.separator;
+        return file.getPath().equals(path) || file.getPath().startsWith(prefix);
+    }
+
+
+    private void checkFailure() throws IOException {
+        Throwable t = failure.get();
+        if (t instanceof IOException) {
+            throw (IOException) t;
+        } else if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        }
+    }
+
+
+    /**
+     * A shard, with its renderer. Its reports are queued, and rendered one
+     * at a time by the threads of the pool.
+     */
+    private final class Shard implements Runnable {
+
+        final Renderer renderer;
+        private final Queue<Report> reports = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean closed;
+
+
+        Shard(Renderer renderer) {
+            this.renderer = renderer;
+        }
+
+
+        synchronized void render(Report report) {
+            reports.add(report);
+            if (!scheduled) {
+                scheduled = true;
+                executor.execute(this);
+            }
+        }
+
+
+        synchronized void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                renderer.flush();
+            }
+        }
+
+
+        @Override
+        public void run() {
+            while (true) {
+                Report report;
+                synchronized (this) {
+                    report = reports.poll();
+                    if (report == null) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                try {
+                    if (failure.get() == null) {
+                        renderer.renderFileReport(report);
+                    }
+                } catch (IOException | RuntimeException | Error e) {
+                    failure.set(e);
+                } finally {
+                    pending.release();
+                }
+            }
+        }
+    }
+}
@@ -5,17 +5,45 @@
 package net.sourceforge.pmd.renderers;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleViolation;
 
 /**
  * Renderer to a summarized HTML format.
+ *
+ * <p>The rows of the violations are rendered while the files are analysed,
+ * on a single other thread, as soon as the report of a file is received. At
+ * the end, they're only numbered and written in the order of the files. Once
+ * rendered, the violations aren't kept: only their rows and the number of
+ * violations of each rule are.
  */
 public class SummaryHTMLRenderer extends AbstractAccumulatingRenderer {
 
     public static final String NAME = "summaryhtml";
 
+    private HTMLRenderer htmlRenderer;
+    private ThreadPoolExecutor executor;
+    private List<Future<List<Fragment>>> fragments;
+    private Map<String, Integer> summary;
+
     public SummaryHTMLRenderer() {
         super(NAME, "Summary HTML format.");
 
@@ -31,22 +59,158 @@ public class SummaryHTMLRenderer extends AbstractAccumulatingRenderer {
         return "html";
     }
 
+    @Override
+    public void start() throws IOException {
+        super.start();
+
+        htmlRenderer = new HTMLRenderer();
+        htmlRenderer.setProperty(HTMLRenderer.LINK_PREFIX, getProperty(HTMLRenderer.LINK_PREFIX));
+        htmlRenderer.setProperty(HTMLRenderer.LINE_PREFIX, getProperty(HTMLRenderer.LINE_PREFIX));
+        htmlRenderer.initPrefixes();
+
+        fragments = new ArrayList<>();
+        summary = new HashMap<>();
+
+        // a single thread, so that the rendering doesn't compete with the
+        // analysis; it stops when idle, in case end() is never called
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger counter = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "PMD renderer " + NAME + " " + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Keeps the errors and suppressed violations of the report, counts its
+     * violations by rule, and submits them to be rendered. Unlike the other
+     * accumulating renderers, the violations aren't merged into
+     * {@link #report}.
+     */
+    @Override
+    public void renderFileReport(final Report report) throws IOException {
+        for (Iterator<Report.ProcessingError> i = report.errors(); i.hasNext();) {
+            this.report.addError(i.next());
+        }
+        for (Iterator<Report.ConfigurationError> i = report.configErrors(); i.hasNext();) {
+            this.report.addConfigError(i.next());
+        }
+        this.report.getSuppressedRuleViolations().addAll(report.getSuppressedRuleViolations());
+
+        if (report.size() > 0) {
+            for (RuleViolation violation : report) {
+                String name = violation.getRule().getName();
+                Integer count = summary.get(name);
+                summary.put(name, count == null ? 1 : count + 1);
+            }
+            fragments.add(executor.submit(new Callable<List<Fragment>>() {
+                @Override
+                public List<Fragment> call() {
+                    return renderFragments(report);
+                }
+            }));
+        }
+    }
+
     @Override
     public void end() throws IOException {
+        List<Fragment> rendered = collectFragments();
+
         writer.write("<html><head><title>PMD</title></head><body>" + PMD.EOL);
         renderSummary();
         writer.write("<center><h2>Detail</h2></center>");
         writer.write("<table align=\"center\" cellspacing=\"0\" cellpadding=\"3\"><tr>" + PMD.EOL);
 
-        HTMLRenderer htmlRenderer = new HTMLRenderer();
-        htmlRenderer.setProperty(HTMLRenderer.LINK_PREFIX, getProperty(HTMLRenderer.LINK_PREFIX));
-        htmlRenderer.setProperty(HTMLRenderer.LINE_PREFIX, getProperty(HTMLRenderer.LINE_PREFIX));
         htmlRenderer.setShowSuppressedViolations(showSuppressedViolations);
-        htmlRenderer.renderBody(writer, report);
+        htmlRenderer.startBody(writer);
+        writeViolations(rendered);
+        htmlRenderer.endBody(writer, report);
 
         writer.write("</tr></table></body></html>" + PMD.EOL);
     }
 
+    /**
+     * Renders the violations of a report, with a fragment per file. The
+     * violations of the report are sorted, so those of a file follow each
+     * other.
+     */
+    private List<Fragment> renderFragments(Report report) {
+        List<Fragment> result = new ArrayList<>();
+        Fragment fragment = null;
+        for (RuleViolation violation : report) {
+            if (fragment == null || !fragment.filename.equals(violation.getFilename())) {
+                fragment = new Fragment(violation.getFilename());
+                result.add(fragment);
+            }
+            fragment.violations.add(new RenderedViolation(violation, htmlRenderer.renderViolation(violation)));
+        }
+        return result;
+    }
+
+    /**
+     * Waits for the fragments to be rendered, and returns them sorted by
+     * file.
+     */
+    private List<Fragment> collectFragments() throws IOException {
+        List<Fragment> result = new ArrayList<>();
+        try {
+            for (Future<List<Fragment>> future : fragments) {
+                result.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering the violations");
+        } catch (ExecutionException e) {
+            throw new IOException("Could not render the violations", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            fragments = null;
+        }
+
+        Collections.sort(result, new Comparator<Fragment>() {
+            @Override
+            public int compare(Fragment f1, Fragment f2) {
+                return f1.filename.compareTo(f2.filename);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Writes the rows of the fragments. The fragments of a file are usually
+     * alone, but if the violations of a file were found in several reports,
+     * they're merged back in the order of the violations.
+     */
+    private void writeViolations(List<Fragment> rendered) throws IOException {
+        int i = 0;
+        while (i < rendered.size()) {
+            String filename = rendered.get(i).filename;
+            List<RenderedViolation> violations = rendered.get(i).violations;
+            int next = i + 1;
+            if (next < rendered.size() && rendered.get(next).filename.equals(filename)) {
+                violations = new ArrayList<>(violations);
+                while (next < rendered.size() && rendered.get(next).filename.equals(filename)) {
+                    violations.addAll(rendered.get(next).violations);
+                    next++;
+                }
+                Collections.sort(violations);
+            }
+            for (RenderedViolation violation : violations) {
+                htmlRenderer.writeViolation(writer, violation.cells);
+            }
+            i = next;
+        }
+    }
+
     /**
      * Write a Summary HTML table.
      *
@@ -56,7 +220,6 @@ public class SummaryHTMLRenderer extends AbstractAccumulatingRenderer {
         writer.write("<center><h2>Summary</h2></center>" + PMD.EOL);
         writer.write("<table align=\"center\" cellspacing=\"0\" cellpadding=\"3\">" + PMD.EOL);
         writer.write("<tr><th>Rule name</th><th>Number of violations</th></tr>" + PMD.EOL);
-        Map<String, Integer> summary = report.getSummary();
         for (Map.Entry<String, Integer> entry : summary.entrySet()) {
             String ruleName = entry.getKey();
             writer.write("<tr><td>");
@@ -67,4 +230,69 @@ public class SummaryHTMLRenderer extends AbstractAccumulatingRenderer {
         }
         writer.write("</table>" + PMD.EOL);
     }
+
+    /** The rendered violations of a file, found in the same report. */
+    private static final class Fragment {
+        final String filename;
+        final List<RenderedViolation> violations = new ArrayList<>();
+
+        Fragment(String filename) {
+            this.filename = filename;
+        }
+    }
+
+    /**
+     * The row of a violation, with what's needed to sort it among the other
+     * violations of its file, in the order of the RuleViolationComparator.
+     */
+    private static final class RenderedViolation implements Comparable<RenderedViolation> {
+        final int beginLine;
+        final int beginColumn;
+        final int endLine;
+        final int endColumn;
+        final String description;
+        final String ruleName;
+        final String cells;
+
+        RenderedViolation(RuleViolation violation, String cells) {
+            this.beginLine = violation.getBeginLine();
+            this.beginColumn = violation.getBeginColumn();
+            this.endLine = violation.getEndLine();
+            this.endColumn = violation.getEndColumn();
+            this.description = violation.getDescription();
+            this.ruleName = violation.getRule().getName();
+            this.cells = cells;
+        }
+
+        @Override
+        public int compareTo(RenderedViolation other) {
+            int cmp = beginLine - other.beginLine;
+            if (cmp == 0) {
+                cmp = compare(description, other.description);
+            }
+            if (cmp == 0) {
+                cmp = beginColumn - other.beginColumn;
+            }
+            if (cmp == 0) {
+                cmp = endLine - other.endLine;
+            }
+            if (cmp == 0) {
+                cmp = endColumn - other.endColumn;
+            }
+            if (cmp == 0) {
+                cmp = ruleName.compareTo(other.ruleName);
+            }
+            return cmp;
+        }
+
+        private static int compare(String s1, String s2) {
+            // Treat null as larger, like the RuleViolationComparator
+            if (s1 == null) {
+                return 1;
+            } else if (s2 == null) {
+                return -1;
+            }
+            return s1.compareTo(s2);
+        }
+    }
 }
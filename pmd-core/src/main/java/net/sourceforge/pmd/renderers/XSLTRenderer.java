@@ -4,34 +4,39 @@
 
 package net.sourceforge.pmd.renderers;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringReader;
-import java.io.StringWriter;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.io.Writer;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
-import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
+import org.apache.commons.io.IOUtils;
 
+import net.sourceforge.pmd.Report;
 import net.sourceforge.pmd.properties.StringProperty;
 
 /**
  * Renderer to XML format with a XSL Transformation applied.
  *
+ * <p>The XML report is not buffered: it's piped to the transformer, which
+ * runs on its own thread while the files are rendered. The memory used is
+ * then the one of the transformer, which usually keeps a compact model of
+ * its input, instead of a copy of the report as text and as a DOM.
+ *
  * @author Romain Pelisse, belaran@gmail.com
  */
 public class XSLTRenderer extends XMLRenderer {
@@ -41,9 +46,13 @@ public class XSLTRenderer extends XMLRenderer {
     public static final StringProperty XSLT_FILENAME = new StringProperty("xsltFilename", "The XSLT file name.", null,
             0);
 
+    private static final int PIPE_SIZE = 64 * 1024;
+
     private Transformer transformer;
     private String xsltFilename = "/pmd-nicerhtml.xsl";
     private Writer outputWriter;
+    private FutureTask<Void> transformation;
+    private final AtomicReference<Exception> transformationFailure = new AtomicReference<>();
 
     public XSLTRenderer() {
         super();
@@ -67,11 +76,6 @@ public class XSLTRenderer extends XMLRenderer {
             }
         }
 
-        // We keep the inital writer to put the final html output
-        this.outputWriter = getWriter();
-        // We use a new one to store the XML...
-        Writer w = new StringWriter();
-        setWriter(w);
         // If don't find the xsl no need to bother doing the all report,
         // so we check this here...
         InputStream xslt = null;
@@ -85,8 +89,59 @@ public class XSLTRenderer extends XMLRenderer {
             throw new FileNotFoundException("Can't file XSLT sheet :" + this.xsltFilename);
         }
         this.prepareTransformer(xslt);
+
+        // We keep the inital writer to put the final html output
+        this.outputWriter = getWriter();
+        // ...and the XML goes through a pipe to the transformer
+        final PipedInputStream xml = new PipedInputStream(PIPE_SIZE);
+        setWriter(new BufferedWriter(new OutputStreamWriter(new PipedOutputStream(xml), getProperty(ENCODING))));
+        transformationFailure.set(null);
+        transformation = new FutureTask<>(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                try {
+                    transformer.transform(new StreamSource(xml), new StreamResult(outputWriter));
+                } catch (Exception e) {
+                    // recorded before the pipe is closed, so that a failing write sees it
+                    transformationFailure.set(e);
+                    throw e;
+                } finally {
+                    xml.close();
+                }
+                return null;
+            }
+        });
+        Thread thread = new Thread(transformation, "PMD XSLT transformation");
+        thread.setDaemon(true);
+        thread.start();
+
         // Now we build the XML file
-        super.start();
+        try {
+            super.start();
+        } catch (IOException e) {
+            throw pipeFailure(e);
+        }
+    }
+
+    @Override
+    public void renderFileReport(Report report) throws IOException {
+        try {
+            super.renderFileReport(report);
+        } catch (IOException e) {
+            throw pipeFailure(e);
+        }
+    }
+
+    /**
+     * A write to the pipe fails once the transformer has stopped reading it:
+     * the failure of the transformation is then the one to report.
+     */
+    private IOException pipeFailure(IOException e) {
+        Exception failure = transformationFailure.get();
+        if (failure == null) {
+            return e;
+        }
+        return new IOException("Failed to apply " + this.xsltFilename, failure);
     }
 
     /**
@@ -95,60 +150,39 @@ public class XSLTRenderer extends XMLRenderer {
      * @param xslt
      *            The stylesheet provided as an InputStream
      */
-    private void prepareTransformer(InputStream xslt) {
-        if (xslt != null) {
-            try {
-                // Get a TransformerFactory object
-                TransformerFactory factory = TransformerFactory.newInstance();
-                StreamSource src = new StreamSource(xslt);
-                // Get an XSL Transformer object
-                this.transformer = factory.newTransformer(src);
-            } catch (TransformerConfigurationException e) {
-                e.printStackTrace();
-            }
+    private void prepareTransformer(InputStream xslt) throws IOException {
+        try {
+            // Get a TransformerFactory object
+            TransformerFactory factory = TransformerFactory.newInstance();
+            StreamSource src = new StreamSource(xslt);
+            // Get an XSL Transformer object
+            this.transformer = factory.newTransformer(src);
+        } catch (TransformerConfigurationException e) {
+            throw new IOException("Invalid XSLT sheet " + this.xsltFilename, e);
+        } finally {
+            xslt.close();
         }
     }
 
     @Override
     public void end() throws IOException {
-        // First we finish the XML report
-        super.end();
-        // Now we transform it using XSLT
-        Writer writer = super.getWriter();
-        if (writer instanceof StringWriter) {
-            StringWriter w = (StringWriter) writer;
-            StringBuffer buffer = w.getBuffer();
-            Document doc = this.getDocument(buffer.toString());
-            this.transform(doc);
-        } else {
-            // Should not happen !
-            throw new RuntimeException("Wrong writer");
-        }
-
-    }
-
-    private void transform(Document doc) {
-        DOMSource source = new DOMSource(doc);
-        this.setWriter(new StringWriter());
-        StreamResult result = new StreamResult(this.outputWriter);
+        // First we finish the XML report, which ends the transformation
         try {
-            transformer.transform(source, result);
-        } catch (TransformerException e) {
-            e.printStackTrace();
+            super.end();
+            getWriter().close();
+        } catch (IOException e) {
+            IOUtils.closeQuietly(getWriter());
+            throw pipeFailure(e);
+        } finally {
+            setWriter(outputWriter);
         }
-    }
-
-    private Document getDocument(String xml) {
         try {
-            DocumentBuilder parser = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-            return parser.parse(new InputSource(new StringReader(xml)));
-        } catch (ParserConfigurationException e) {
-            e.printStackTrace();
-        } catch (SAXException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
+            transformation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while applying " + this.xsltFilename, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to apply " + this.xsltFilename, e.getCause());
         }
-        return null;
     }
 }
@@ -7,8 +7,10 @@ package net.sourceforge.pmd.util;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.Closeable;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
@@ -37,6 +39,14 @@ public final class IOUtil {
         }
     }
 
+    public static OutputStream createOutputStream(String reportFile) {
+        try {
+            return StringUtils.isBlank(reportFile) ? System.out : new FileOutputStream(reportFile);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
     public static Reader skipBOM(Reader source) {
         Reader in = new BufferedReader(source);
         try {
@@ -0,0 +1,142 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Iterator;
+
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.sourceforge.pmd.cli.PMDCommandLineInterface;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.renderers.BinaryRenderer;
+
+public class BaselineTest {
+
+    @org.junit.Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final Rule rule1 = new MockRule("rule1", "desc", "msg1", "rulesetname");
+    private final Rule rule2 = new MockRule("rule2", "desc", "msg2", "rulesetname");
+
+    private Report previousReport() {
+        Report report = new Report();
+        report.addRuleViolation(ReportTest.createViolation(rule1, "Foo.java", 10, "known"));
+        report.addRuleViolation(ReportTest.createViolation(rule2, "Foo.java", 20, "twice"));
+        report.addRuleViolation(ReportTest.createViolation(rule2, "Bar.java", 5, "known"));
+        return report;
+    }
+
+    private Report currentReport(Baseline baseline) {
+        Report report = new Report();
+        report.setBaseline(baseline);
+        // moved down by 3 lines
+        report.addRuleViolation(ReportTest.createViolation(rule1, "Foo.java", 13, "known"));
+        report.addRuleViolation(ReportTest.createViolation(rule2, "Foo.java", 23, "twice"));
+        report.addRuleViolation(ReportTest.createViolation(rule2, "Foo.java", 30, "twice"));
+        // same message, but another rule or file
+        report.addRuleViolation(ReportTest.createViolation(rule2, "Foo.java", 40, "known"));
+        report.addRuleViolation(ReportTest.createViolation(rule1, "Baz.java", 5, "known"));
+        return report;
+    }
+
+    private void assertOnlyNewViolations(Report report) {
+        assertEquals(3, report.size());
+        Iterator<RuleViolation> violations = report.iterator();
+        RuleViolation violation = violations.next();
+        assertEquals("Baz.java", violation.getFilename());
+        violation = violations.next();
+        assertEquals(30, violation.getBeginLine());
+        violation = violations.next();
+        assertEquals(40, violation.getBeginLine());
+    }
+
+    @Test
+    public void testViolationsOfTheBaselineAreNotReported() {
+        Baseline baseline = Baseline.of(previousReport());
+        assertEquals(3, baseline.size());
+        assertOnlyNewViolations(currentReport(baseline));
+    }
+
+    @Test
+    public void testFingerprintIgnoresLinesAndWhitespace() {
+        long fingerprint = Baseline.fingerprint(ReportTest.createViolation(rule1, "Foo.java", 1, "a  message"));
+        assertEquals(fingerprint, Baseline.fingerprint(ReportTest.createViolation(rule1, "Foo.java", 100, "a\tmessage")));
+        assertEquals(0, Baseline.of(previousReport()).count(fingerprint));
+    }
+
+    @Test
+    public void testLoadBinaryReport() throws Exception {
+        File file = tempFolder.newFile("baseline.pmdb");
+        BinaryRenderer renderer = new BinaryRenderer();
+        renderer.setOutputStream(new FileOutputStream(file));
+        renderer.start();
+        renderer.renderFileReport(previousReport());
+        renderer.end();
+        renderer.flush();
+
+        Baseline baseline = Baseline.load(file);
+        assertEquals(3, baseline.size());
+        assertEquals(1, baseline.count(Baseline.fingerprint(ReportTest.createViolation(rule2, "Foo.java", 1, "twice"))));
+        assertOnlyNewViolations(currentReport(baseline));
+    }
+
+    @Test
+    public void testManyViolationsOfTheBaseline() {
+        Report previous = new Report();
+        for (int i = 0; i < 100; i++) {
+            previous.addRuleViolation(ReportTest.createViolation(rule1, "Foo.java", i, "known " + i));
+            previous.addRuleViolation(ReportTest.createViolation(rule1, "Foo.java", i, "known " + i));
+        }
+        Report report = new Report();
+        report.setBaseline(Baseline.of(previous));
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 3; j++) {
+                report.addRuleViolation(ReportTest.createViolation(rule1, "Foo.java", i, "known " + i));
+            }
+        }
+        // only the third violation of each message is new
+        assertEquals(100, report.size());
+    }
+
+    @Test
+    public void testFileReportsTakeTheBaselineOfTheContext() {
+        RuleContext ctx = new RuleContext();
+        ctx.getReport().setBaseline(Baseline.of(previousReport()));
+        Report report = Report.createReport(new RuleContext(ctx), "Foo.java");
+        report.addRuleViolation(ReportTest.createViolation(rule1, "Foo.java", 12, "known"));
+        assertEquals(0, report.size());
+    }
+
+    private int runWithBaseline(File baseline, File report) throws Exception {
+        File source = tempFolder.newFile("Foo.dummy");
+        return PMD.run(new String[] {"-d", source.getPath(), "-R", "rulesets/dummy/basic.xml", "-f", "text",
+            "-r", report.getPath(), "-baseline", baseline.getPath(), });
+    }
+
+    @Test
+    public void testMissingBaselineFailsTheRun() throws Exception {
+        File report = new File(tempFolder.getRoot(), "report.txt");
+        assertEquals(PMDCommandLineInterface.ERROR_STATUS,
+                     runWithBaseline(new File(tempFolder.getRoot(), "missing.pmdb"), report));
+        assertFalse(report.exists());
+    }
+
+    @Test
+    public void testCorruptBaselineFailsTheRun() throws Exception {
+        File baseline = tempFolder.newFile("corrupt.pmdb");
+        try (FileOutputStream out = new FileOutputStream(baseline)) {
+            out.write("<?xml version=\"1.0\"?><pmd></pmd>".getBytes("UTF-8"));
+        }
+        File report = new File(tempFolder.getRoot(), "report.txt");
+        assertEquals(PMDCommandLineInterface.ERROR_STATUS, runWithBaseline(baseline, report));
+        assertFalse(report.exists());
+    }
+}
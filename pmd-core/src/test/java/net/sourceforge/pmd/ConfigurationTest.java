@@ -164,6 +164,19 @@ public class ConfigurationTest {
         assertEquals("Changed stress test", true, configuration.isStressTest());
     }
 
+    @Test
+    public void testFailFastThreshold() {
+        PMDConfiguration configuration = new PMDConfiguration();
+        assertEquals("Default fail fast threshold", 0, configuration.getFailFastThreshold());
+        configuration.setFailFastThreshold(10);
+        assertEquals("Changed fail fast threshold", 10, configuration.getFailFastThreshold());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeFailFastThreshold() {
+        new PMDConfiguration().setFailFastThreshold(-1);
+    }
+
     @Test
     public void testBenchmark() {
         PMDConfiguration configuration = new PMDConfiguration();
@@ -10,6 +10,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -166,6 +167,46 @@ public class ReportTest implements ThreadSafeReportListener {
         assertEquals(2, treeCount);
     }
 
+    @Test
+    public void testStartFileForgetsSuppressedLines() {
+        Rule rule = new MockRule("name", "desc", "msg", "rulesetname");
+        Report report = new Report();
+        report.suppress(Collections.singletonMap(5, ""));
+        report.addRuleViolation(createViolation(rule, "foo", 5, rule.getMessage()));
+        assertEquals(0, report.size());
+
+        report.startFile();
+        report.addRuleViolation(createViolation(rule, "bar", 5, rule.getMessage()));
+        assertEquals(1, report.size());
+    }
+
+    @Test
+    public void testMergedReportsAreSorted() {
+        Rule rule = new MockRule("name", "desc", "msg", "rulesetname");
+        Report merged = new Report();
+        int[][] lines = { { 8, 4, 6 }, { 2, 10 }, {}, { 5, 3, 9, 7 } };
+        for (int[] fileLines : lines) {
+            Report file = new Report();
+            for (int line : fileLines) {
+                file.addRuleViolation(createViolation(rule, "foo", line, rule.getMessage()));
+            }
+            merged.merge(file);
+        }
+
+        assertEquals(9, merged.size());
+        assertEquals(9, merged.treeSize());
+        int expectedLine = 2;
+        for (RuleViolation violation : merged) {
+            assertEquals(expectedLine++, violation.getBeginLine());
+        }
+
+        // added after the tree was built
+        merged.addRuleViolation(createViolation(rule, "foo", 1, rule.getMessage()));
+        assertEquals(10, merged.size());
+        assertEquals(10, merged.treeSize());
+        assertEquals(1, merged.iterator().next().getBeginLine());
+    }
+
     private static Node getNode(int line, int column) {
         DummyNode s = new DummyNode(2);
         DummyNode parent = new DummyNode(1);
@@ -177,6 +218,19 @@ public class ReportTest implements ThreadSafeReportListener {
         return s;
     }
 
+    /**
+     * Creates a violation of the rule in the file, which begins at the first
+     * column of the given line.
+     */
+    public static RuleViolation createViolation(Rule rule, String filename, int beginLine, String message) {
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename(filename);
+        DummyNode node = new DummyNode(1);
+        node.testingOnlySetBeginLine(beginLine);
+        node.testingOnlySetBeginColumn(1);
+        return new ParametricRuleViolation<>(rule, ctx, node, message);
+    }
+
     private static Node getNode(int line, int column, boolean nextLine) {
         DummyNode s = (DummyNode) getNode(line, column);
         if (nextLine) {
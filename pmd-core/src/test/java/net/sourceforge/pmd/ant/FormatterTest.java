@@ -4,14 +4,19 @@
 
 package net.sourceforge.pmd.ant;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.renderers.BinaryReportReader;
 import net.sourceforge.pmd.renderers.CSVRenderer;
 import net.sourceforge.pmd.renderers.HTMLRenderer;
 import net.sourceforge.pmd.renderers.TextRenderer;
@@ -19,6 +24,9 @@ import net.sourceforge.pmd.renderers.XMLRenderer;
 
 public class FormatterTest {
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     @Test
     public void testType() {
         Formatter f = new Formatter();
@@ -46,4 +54,20 @@ public class FormatterTest {
         f.setToFile(new File("foo"));
         assertFalse("Formatter toFile should not be null!", f.isNoOutputSupplied());
     }
+
+    @Test
+    public void testBinaryToFile() throws Exception {
+        Formatter f = new Formatter();
+        f.setType("binary");
+        f.setToFile(new File("report.pmdb"));
+        f.start(tempFolder.getRoot().getPath());
+        Report errors = new Report();
+        errors.addError(new Report.ProcessingError(new RuntimeException("Error"), "broken"));
+        f.end(errors);
+
+        try (BinaryReportReader reader = new BinaryReportReader(new File(tempFolder.getRoot(), "report.pmdb"))) {
+            assertEquals(0, reader.getViolationCount());
+            assertEquals(1, reader.getProcessingErrors().size());
+        }
+    }
 }
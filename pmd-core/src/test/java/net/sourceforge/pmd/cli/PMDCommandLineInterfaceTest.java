@@ -4,15 +4,20 @@
 
 package net.sourceforge.pmd.cli;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.ExpectedSystemExit;
 import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+import org.junit.rules.TemporaryFolder;
 
+import net.sourceforge.pmd.PMD;
 import net.sourceforge.pmd.PMDConfiguration;
 import net.sourceforge.pmd.cache.NoopAnalysisCache;
 
@@ -27,6 +32,9 @@ public class PMDCommandLineInterfaceTest {
     @Rule // Restores system properties after test
     public final RestoreSystemProperties restoreSystemProperties = new RestoreSystemProperties();
 
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
     @Before
     public void clearSystemProperties() {
         System.clearProperty(PMDCommandLineInterface.NO_EXIT_AFTER_RUN);
@@ -81,4 +89,41 @@ public class PMDCommandLineInterfaceTest {
         PMDCommandLineInterface.setStatusCodeOrExit(0);
         Assert.assertEquals(System.getProperty(PMDCommandLineInterface.STATUS_CODE_PROPERTY), "0");
     }
+
+    @Test
+    public void testNegativeFailFastIsRejected() {
+        System.setProperty(PMDCommandLineInterface.NO_EXIT_AFTER_RUN, "1");
+        PMDParameters params = new PMDParameters();
+        String[] args = { "-d", "source_folder", "-f", "text", "-R", "java-empty", "-failfast", "-1", };
+        PMDCommandLineInterface.extractParameters(params, args, "PMD");
+
+        assertEquals(String.valueOf(PMDCommandLineInterface.ERROR_STATUS),
+                     System.getProperty(PMDCommandLineInterface.STATUS_CODE_PROPERTY));
+    }
+
+    @Test
+    public void testFailFastOnProcessingErrorFailsTheRun() throws Exception {
+        tempFolder.newFile("Foo-parse-error.dummy");
+        File report = new File(tempFolder.getRoot(), "report.txt");
+
+        // no violation is found before the analysis stops
+        int status = PMD.run(new String[] {"-d", tempFolder.getRoot().getPath(), "-R", "rulesets/dummy/basic.xml",
+            "-f", "text", "-r", report.getPath(), "-failfast", "1", });
+
+        assertEquals(PMDCommandLineInterface.ERROR_STATUS, status);
+        // the report of the files analysed until then is still written
+        assertTrue(report.exists());
+    }
+
+    @Test
+    public void testFailFastOnViolations() throws Exception {
+        tempFolder.newFile("Foo.dummy");
+        File report = new File(tempFolder.getRoot(), "report.txt");
+
+        int status = PMD.run(new String[] {"-d", tempFolder.getRoot().getPath(),
+            "-R", "rulesets/MultiThreadProcessorTest/failfast.xml", "-f", "text", "-r", report.getPath(),
+            "-failfast", "1", });
+
+        assertEquals(PMDCommandLineInterface.VIOLATIONS_FOUND, status);
+    }
 }
@@ -72,6 +72,9 @@ public class DummyLanguageModule extends BaseLanguageModule {
             return new AbstractParser(parserOptions) {
                 @Override
                 public Node parse(String fileName, Reader source) throws ParseException {
+                    if (fileName != null && fileName.contains("parse-error")) {
+                        throw new ParseException("Can't parse " + fileName);
+                    }
                     DummyNode node = new DummyNode(1);
                     node.testingOnlySetBeginLine(1);
                     node.testingOnlySetBeginColumn(1);
@@ -0,0 +1,64 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link ChildrenBuilder}.
+ */
+public class ChildrenBuilderTest {
+
+    @Test
+    public void testBuildTree() {
+        ChildrenBuilder builder = new ChildrenBuilder();
+        DummyNode root = new DummyNode(0);
+        DummyNode first = new DummyNode(1);
+        DummyNode nested = new DummyNode(2);
+        DummyNode second = new DummyNode(3);
+
+        builder.add(root);
+        builder.open(root);
+        builder.add(first);
+        builder.open(first);
+        builder.add(nested);
+        builder.open(nested);
+        builder.close();
+        builder.close();
+        builder.add(second);
+        builder.open(second);
+        builder.close();
+        builder.close();
+
+        assertNull(root.jjtGetParent());
+        assertEquals(2, root.jjtGetNumChildren());
+        assertSame(first, root.jjtGetChild(0));
+        assertSame(second, root.jjtGetChild(1));
+        assertEquals(1, second.jjtGetChildIndex());
+        assertSame(root, second.jjtGetParent());
+        assertSame(nested, first.jjtGetChild(0));
+        assertSame(first, nested.jjtGetParent());
+        assertEquals(0, nested.jjtGetNumChildren());
+        assertEquals(0, second.jjtGetNumChildren());
+    }
+
+    @Test
+    public void testManyChildren() {
+        ChildrenBuilder builder = new ChildrenBuilder();
+        DummyNode root = new DummyNode(0);
+        builder.open(root);
+        for (int i = 0; i < 5000; i++) {
+            builder.add(new DummyNode(1));
+        }
+        builder.close();
+
+        assertEquals(5000, root.jjtGetNumChildren());
+        assertEquals(4999, root.jjtGetChild(4999).jjtGetChildIndex());
+    }
+}
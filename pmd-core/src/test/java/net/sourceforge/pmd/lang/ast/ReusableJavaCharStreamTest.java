@@ -0,0 +1,56 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link ReusableJavaCharStream}.
+ */
+public class ReusableJavaCharStreamTest {
+
+    @Test
+    public void testImagesAreShared() throws IOException {
+        ReusableJavaCharStream stream = new ReusableJavaCharStream();
+        stream.reset(new StringReader("foo bar foo"));
+
+        String first = readToken(stream, 3);
+        stream.readChar();
+        assertEquals("bar", readToken(stream, 3));
+        stream.readChar();
+        String second = readToken(stream, 3);
+
+        assertEquals("foo", first);
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        ReusableJavaCharStream stream = new ReusableJavaCharStream();
+        stream.reset(new StringReader("foo"));
+        String first = readToken(stream, 3);
+
+        stream.reset(new StringReader("\n\\u0066oo"));
+        stream.readChar();
+        String second = readToken(stream, 3);
+
+        assertSame(first, second);
+        assertEquals(2, stream.getBeginLine());
+    }
+
+    private static String readToken(CharStream stream, int length) throws IOException {
+        stream.BeginToken();
+        for (int i = 1; i < length; i++) {
+            stream.readChar();
+        }
+        return stream.GetImage();
+    }
+}
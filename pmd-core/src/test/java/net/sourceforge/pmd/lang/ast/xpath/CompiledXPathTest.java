@@ -0,0 +1,63 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast.xpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.ast.Node;
+
+/**
+ * Unit test for {@link CompiledXPath}
+ */
+public class CompiledXPathTest {
+
+    private static final CompiledXPath CHILD_NAMED = CompiledXPath.compile("./dummyNode[@Image=$name]");
+
+    @Test
+    public void testVariables() {
+        DummyNode root = new DummyNode(1);
+        DummyNode foo = newChild(root, "foo");
+        newChild(root, "bar");
+
+        List<Node> result = CHILD_NAMED.selectNodes(root, "name", "foo");
+        assertEquals(1, result.size());
+        assertSame(foo, result.get(0));
+
+        assertTrue(CHILD_NAMED.hasMatch(root, "name", "bar"));
+        assertFalse(CHILD_NAMED.hasMatch(root, "name", "baz"));
+        // the value is never interpreted as XPath
+        assertFalse(CHILD_NAMED.hasMatch(root, "name", "foo' or '1'='1"));
+    }
+
+    @Test
+    public void testNoVariables() {
+        DummyNode root = new DummyNode(1);
+        newChild(root, "foo");
+
+        assertTrue(CompiledXPath.compile("./dummyNode").hasMatch(root));
+        assertFalse(CompiledXPath.compile("./dummyNode/dummyNode").hasMatch(root));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidExpression() {
+        CompiledXPath.compile("./dummyNode[");
+    }
+
+    private static DummyNode newChild(DummyNode parent, String image) {
+        DummyNode child = new DummyNode(1);
+        child.setImage(image);
+        child.jjtSetParent(parent);
+        parent.jjtAddChild(child, parent.jjtGetNumChildren());
+        return child;
+    }
+}
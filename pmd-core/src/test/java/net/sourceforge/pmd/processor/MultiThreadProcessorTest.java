@@ -20,6 +20,7 @@ import net.sourceforge.pmd.PMDConfiguration;
 import net.sourceforge.pmd.Report;
 import net.sourceforge.pmd.Report.ConfigurationError;
 import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RulePriority;
 import net.sourceforge.pmd.RuleSetFactory;
 import net.sourceforge.pmd.RuleViolation;
 import net.sourceforge.pmd.ThreadSafeReportListener;
@@ -42,6 +43,10 @@ public class MultiThreadProcessorTest {
         PMDConfiguration configuration = new PMDConfiguration();
         configuration.setRuleSets(ruleset);
         configuration.setThreads(2);
+        setUpForTest(configuration);
+    }
+
+    private void setUpForTest(PMDConfiguration configuration) {
         files = new ArrayList<>();
         files.add(new StringDataSource("file1-violation.dummy", "ABC"));
         files.add(new StringDataSource("file2-foo.dummy", "DEF"));
@@ -85,6 +90,101 @@ public class MultiThreadProcessorTest {
         Assert.assertEquals("Missing violation", 1, reportListener.violations.get());
     }
 
+    @Test
+    public void testMultifileRule() {
+        setUpForTest("rulesets/MultiThreadProcessorTest/multifile.xml");
+        processor.processFiles(ruleSetFactory, files, ctx, Collections.<Renderer>emptyList());
+
+        // the first pass doesn't apply the rules
+        Assert.assertEquals("Test rule has not been executed once per file", 2, MultifileRule.count.get());
+        Assert.assertEquals("Missing violation", 1, reportListener.violations.get());
+    }
+
+    @Test
+    public void testFailFast() throws IOException {
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setRuleSets("rulesets/MultiThreadProcessorTest/failfast.xml");
+        configuration.setThreads(2);
+        configuration.setFailFastThreshold(1);
+        setUpForTest(configuration);
+        SlowRule.count.set(0);
+        for (int i = 3; i <= 50; i++) {
+            files.add(new StringDataSource("file" + i + ".dummy", "GHI"));
+        }
+
+        final SimpleRenderer renderer = new SimpleRenderer(null, null);
+        renderer.start();
+        processor.processFiles(ruleSetFactory, files, ctx, Collections.<Renderer>singletonList(renderer));
+        renderer.end();
+
+        // the files which were still queued are not analysed
+        Assert.assertTrue("The analysis didn't stop", SlowRule.count.get() < files.size());
+        // the files which were being analysed are still reported
+        Assert.assertEquals(SlowRule.count.get(), reportListener.violations.get());
+        Assert.assertEquals(SlowRule.count.get(), renderer.getReport().size());
+        Assert.assertFalse(processor.isStoppedByFailure());
+    }
+
+    @Test
+    public void testFailFastOnProcessingError() {
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setRuleSets("rulesets/MultiThreadProcessorTest/failfast.xml");
+        configuration.setFailFastThreshold(10);
+        setUpForTest(configuration);
+        SlowRule.count.set(0);
+        files.add(0, new StringDataSource("file0-parse-error.dummy", "XYZ"));
+        MonoThreadProcessor monoProcessor = new MonoThreadProcessor(configuration);
+        monoProcessor.processFiles(ruleSetFactory, files, ctx, Collections.<Renderer>emptyList());
+
+        // the failure stops the analysis before any violation is found
+        Assert.assertTrue(monoProcessor.isStoppedByFailure());
+        Assert.assertEquals(0, SlowRule.count.get());
+        Assert.assertEquals(0, reportListener.violations.get());
+    }
+
+    @Test
+    public void testReportBatches() throws IOException {
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setRuleSets("rulesets/MultiThreadProcessorTest/failfast.xml");
+        configuration.setThreads(2);
+        configuration.setReportBatchSize(8);
+        setUpForTest(configuration);
+        for (int i = 3; i <= 50; i++) {
+            files.add(new StringDataSource("file" + i + ".dummy", "GHI"));
+        }
+
+        final AtomicInteger renderedReports = new AtomicInteger();
+        final SimpleRenderer renderer = new SimpleRenderer(null, null) {
+            @Override
+            public void renderFileReport(Report report) throws IOException {
+                renderedReports.incrementAndGet();
+                super.renderFileReport(report);
+            }
+        };
+        renderer.start();
+        processor.processFiles(ruleSetFactory, files, ctx, Collections.<Renderer>singletonList(renderer));
+        renderer.end();
+
+        Assert.assertEquals(50, renderer.getReport().size());
+        // the base report, the 5 or 6 full batches, and the last batch of each thread
+        Assert.assertTrue(renderedReports.get() >= 8 && renderedReports.get() <= 9);
+    }
+
+    @Test
+    public void testFailFastPriority() {
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setRuleSets("rulesets/MultiThreadProcessorTest/failfast.xml");
+        configuration.setFailFastThreshold(1);
+        configuration.setFailFastPriority(RulePriority.HIGH);
+        setUpForTest(configuration);
+        SlowRule.count.set(0);
+        new MonoThreadProcessor(configuration).processFiles(ruleSetFactory, files, ctx,
+                                                            Collections.<Renderer>emptyList());
+
+        // the violations of the rule have a lower priority
+        Assert.assertEquals(2, reportListener.violations.get());
+    }
+
     private static class StringDataSource implements DataSource {
         private final String data;
         private final String name;
@@ -137,6 +237,38 @@ public class MultiThreadProcessorTest {
         }
     }
     
+    public static class MultifileRule extends AbstractRule {
+        public static AtomicInteger count = new AtomicInteger(0);
+
+        public MultifileRule() {
+            setMultifile(true);
+        }
+
+        @Override
+        public void apply(List<? extends Node> nodes, RuleContext ctx) {
+            count.incrementAndGet();
+
+            if (ctx.getSourceCodeFilename().contains("violation")) {
+                addViolation(ctx, nodes.get(0));
+            }
+        }
+    }
+
+    public static class SlowRule extends AbstractRule {
+        public static AtomicInteger count = new AtomicInteger(0);
+
+        @Override
+        public void apply(List<? extends Node> nodes, RuleContext ctx) {
+            count.incrementAndGet();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                // ignored
+            }
+            addViolation(ctx, nodes.get(0));
+        }
+    }
+
     public static class DysfunctionalRule extends AbstractRule {
 
         public static final String DYSFUNCTIONAL_RULE_REASON = "dysfunctional rule is dysfunctional";
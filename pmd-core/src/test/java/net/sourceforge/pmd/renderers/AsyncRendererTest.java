@@ -0,0 +1,165 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.FooRule;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.ReportTest;
+
+public class AsyncRendererTest {
+
+    private static List<Report> createReports(int count) {
+        List<Report> reports = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Report report = new Report();
+            report.addRuleViolation(ReportTest.createViolation(new FooRule(), "file" + i, i + 1, "message " + i));
+            reports.add(report);
+        }
+        return reports;
+    }
+
+    private static String render(Renderer renderer, List<Report> reports) throws IOException {
+        StringWriter writer = new StringWriter();
+        renderer.setWriter(writer);
+        renderer.start();
+        for (Report report : reports) {
+            renderer.renderFileReport(report);
+        }
+        renderer.end();
+        return writer.toString();
+    }
+
+    @Test
+    public void testSameOutputAsTheRenderer() throws Exception {
+        List<Report> reports = createReports(100);
+        String expected = render(new TextRenderer(), reports);
+        String actual = render(new AsyncRenderer(new TextRenderer(), 2, 16, 0), reports);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testAllCallsAreMadeOnTheRenderingThread() throws Exception {
+        final Set<Thread> threads = new HashSet<>();
+        Renderer recording = new TextRenderer() {
+            @Override
+            public void start() throws IOException {
+                threads.add(Thread.currentThread());
+                super.start();
+            }
+
+            @Override
+            public void renderFileReport(Report report) throws IOException {
+                threads.add(Thread.currentThread());
+                super.renderFileReport(report);
+            }
+
+            @Override
+            public void end() throws IOException {
+                threads.add(Thread.currentThread());
+                super.end();
+            }
+
+            @Override
+            public void flush() {
+                threads.add(Thread.currentThread());
+                super.flush();
+            }
+        };
+
+        Renderer renderer = new AsyncRenderer(recording, 2, 16, 0);
+        render(renderer, createReports(10));
+        renderer.flush();
+
+        assertEquals(1, threads.size());
+        assertNotSame(Thread.currentThread(), threads.iterator().next());
+    }
+
+    @Test
+    public void testXsltRenderer() throws Exception {
+        // the pipe of the XSLT renderer breaks if its writing thread dies before the end
+        for (int i = 0; i < 5; i++) {
+            Renderer renderer = new AsyncRenderer(new XSLTRenderer());
+            String result = render(renderer, createReports(50));
+            renderer.flush();
+            assertTrue(result.contains("message 49"));
+        }
+    }
+
+    @Test
+    public void testFlushesAreCoalesced() throws Exception {
+        final List<Integer> flushes = new ArrayList<>();
+        final StringWriter out = new StringWriter();
+        Writer writer = new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) {
+                out.write(cbuf, off, len);
+            }
+
+            @Override
+            public void flush() {
+                flushes.add(out.getBuffer().length());
+            }
+
+            @Override
+            public void close() {
+                // nothing to do
+            }
+        };
+
+        Renderer renderer = new AsyncRenderer(new TextRenderer(), 2, Integer.MAX_VALUE, Long.MAX_VALUE / 1000000);
+        renderer.setWriter(writer);
+        renderer.start();
+        for (Report report : createReports(10)) {
+            renderer.renderFileReport(report);
+        }
+        renderer.end();
+
+        // only the end flushes
+        assertEquals(1, flushes.size());
+        assertEquals(out.getBuffer().length(), (int) flushes.get(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void testFailureIsReported() throws Exception {
+        Writer failing = new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void close() {
+                // nothing to do
+            }
+        };
+
+        Renderer renderer = new AsyncRenderer(new TextRenderer(), 2, 1, 0);
+        renderer.setWriter(failing);
+        renderer.start();
+        for (Report report : createReports(100)) {
+            renderer.renderFileReport(report);
+        }
+        renderer.end();
+    }
+}
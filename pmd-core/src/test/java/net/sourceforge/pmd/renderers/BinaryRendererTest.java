@@ -0,0 +1,146 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.cli.BinaryReportDiff;
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+
+public class BinaryRendererTest {
+
+    @org.junit.Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final Rule rule1 = new MockRule("rule1", "desc", "msg1", "rulesetname", RulePriority.HIGH);
+    private final Rule rule2 = new MockRule("rule2", "desc", "msg2", "rulesetname");
+
+    private static Report report(String filename, Object... violations) {
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename(filename);
+        Report report = new Report();
+        for (int i = 0; i < violations.length; i += 3) {
+            DummyNode node = new DummyNode(1);
+            node.testingOnlySetBeginLine((Integer) violations[i + 1]);
+            node.testingOnlySetBeginColumn(3);
+            node.testingOnlySetEndLine((Integer) violations[i + 1] + 1);
+            node.testingOnlySetEndColumn(Integer.MAX_VALUE);
+            report.addRuleViolation(new ParametricRuleViolation<Node>((Rule) violations[i], ctx, node,
+                                                                      (String) violations[i + 2]));
+        }
+        return report;
+    }
+
+    private File render(String name, Report... reports) throws IOException {
+        File file = tempFolder.newFile(name);
+        BinaryRenderer renderer = new BinaryRenderer();
+        renderer.setOutputStream(new FileOutputStream(file));
+        renderer.start();
+        for (Report report : reports) {
+            renderer.renderFileReport(report);
+        }
+        renderer.end();
+        renderer.flush();
+        return file;
+    }
+
+    @Test
+    public void testViolationsAreReadBack() throws Exception {
+        Report errors = new Report();
+        errors.addError(new Report.ProcessingError(new RuntimeException("Error"), "broken"));
+        errors.addConfigError(new Report.ConfigurationError(rule2, "a configuration error"));
+        File file = render("report.pmdb", report("foo", rule1, 10, "first", rule2, 200000, "second"),
+                           report("bar", rule1, 1, "third"), errors);
+
+        try (BinaryReportReader reader = new BinaryReportReader(file)) {
+            assertEquals(Arrays.asList("bar", "foo"), reader.getFilenames());
+            assertEquals(3, reader.getViolationCount());
+            assertEquals(2, reader.getViolationCount("foo"));
+            assertEquals(0, reader.getViolationCount("baz"));
+
+            List<BinaryReportReader.Violation> violations = reader.readViolations("foo");
+            assertEquals(2, violations.size());
+            BinaryReportReader.Violation first = violations.get(0);
+            assertEquals("foo", first.getFilename());
+            assertEquals("rule1", first.getRuleName());
+            assertEquals("rulesetname", first.getRuleSetName());
+            assertEquals(RulePriority.HIGH, first.getPriority());
+            assertNull(first.getExternalInfoUrl());
+            assertEquals(10, first.getBeginLine());
+            assertEquals(3, first.getBeginColumn());
+            assertEquals(11, first.getEndLine());
+            assertEquals(Integer.MAX_VALUE, first.getEndColumn());
+            assertEquals("first", first.getDescription());
+            assertNull(first.getMethodName());
+            assertEquals(200000, violations.get(1).getBeginLine());
+            assertEquals("rule2", violations.get(1).getRuleName());
+            assertEquals("third", reader.readViolations("bar").get(0).getDescription());
+
+            assertEquals(1, reader.getProcessingErrors().size());
+            assertEquals("broken", reader.getProcessingErrors().get(0).getFilename());
+            assertEquals("Error", reader.getProcessingErrors().get(0).getMessage());
+            assertEquals(1, reader.getConfigurationErrors().size());
+            assertEquals("rule2", reader.getConfigurationErrors().get(0).getRuleName());
+            assertEquals("a configuration error", reader.getConfigurationErrors().get(0).getMessage());
+        }
+    }
+
+    @Test
+    public void testEmptyReport() throws Exception {
+        try (BinaryReportReader reader = new BinaryReportReader(render("empty.pmdb"))) {
+            assertEquals(0, reader.getFilenames().size());
+            assertEquals(0, reader.getViolationCount());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotABinaryReport() throws Exception {
+        File file = tempFolder.newFile("report.xml");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("<?xml version=\"1.0\"?><pmd></pmd>".getBytes("UTF-8"));
+        }
+        new BinaryReportReader(file).close();
+    }
+
+    @Test
+    public void testDiff() throws Exception {
+        File oldFile = render("old.pmdb", report("a", rule1, 1, "gone"),
+                              report("b", rule1, 5, "kept", rule2, 8, "twice"), report("c", rule2, 1, "file removed"));
+        File newFile = render("new.pmdb", report("b", rule1, 7, "kept", rule2, 9, "twice", rule2, 12, "twice"),
+                              report("d", rule1, 2, "file added"));
+
+        StringWriter out = new StringWriter();
+        int differences;
+        try (BinaryReportReader oldReport = new BinaryReportReader(oldFile);
+             BinaryReportReader newReport = new BinaryReportReader(newFile)) {
+            differences = BinaryReportDiff.diff(oldReport, newReport, out);
+        }
+
+        assertEquals(4, differences);
+        assertEquals("- a:1:\trule1:\tgone" + PMD.EOL
+                + "+ b:12:\trule2:\ttwice" + PMD.EOL
+                + "- c:1:\trule2:\tfile removed" + PMD.EOL
+                + "+ d:2:\trule1:\tfile added" + PMD.EOL, out.toString());
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.FooRule;
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Report.ConfigurationError;
+import net.sourceforge.pmd.Report.ProcessingError;
+import net.sourceforge.pmd.ReportTest;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class JSONRendererTest extends AbstractRendererTst {
+
+    @Override
+    public Renderer getRenderer() {
+        return new JSONRenderer();
+    }
+
+    private static String getHeader() {
+        return "{" + PMD.EOL
+                + "  \"formatVersion\": 0," + PMD.EOL
+                + "  \"pmdVersion\": \"\"," + PMD.EOL
+                + "  \"timestamp\": \"\"," + PMD.EOL
+                + "  \"files\": [";
+    }
+
+    private static String getViolation(int endColumn) {
+        return "        {" + PMD.EOL
+                + "          \"beginline\": 1," + PMD.EOL
+                + "          \"begincolumn\": 1," + PMD.EOL
+                + "          \"endline\": 1," + PMD.EOL
+                + "          \"endcolumn\": " + endColumn + "," + PMD.EOL
+                + "          \"description\": \"blah\"," + PMD.EOL
+                + "          \"rule\": \"Foo\"," + PMD.EOL
+                + "          \"ruleset\": \"RuleSet\"," + PMD.EOL
+                + "          \"priority\": 5" + PMD.EOL
+                + "        }";
+    }
+
+    private static String getFooter(String processingErrors, String configurationErrors) {
+        return "  \"suppressedViolations\": []," + PMD.EOL
+                + "  \"processingErrors\": [" + processingErrors + "]," + PMD.EOL
+                + "  \"configurationErrors\": [" + configurationErrors + "]" + PMD.EOL
+                + "}" + PMD.EOL;
+    }
+
+    private static String getFile(String violations) {
+        return PMD.EOL + "    {" + PMD.EOL
+                + "      \"filename\": \"n/a\"," + PMD.EOL
+                + "      \"violations\": [" + PMD.EOL
+                + violations + PMD.EOL
+                + "      ]" + PMD.EOL
+                + "    }" + PMD.EOL
+                + "  ]," + PMD.EOL;
+    }
+
+    @Override
+    public String getExpected() {
+        return getHeader() + getFile(getViolation(1)) + getFooter("", "");
+    }
+
+    @Override
+    public String getExpectedEmpty() {
+        return getHeader() + "]," + PMD.EOL + getFooter("", "");
+    }
+
+    @Override
+    public String getExpectedMultiple() {
+        return getHeader() + getFile(getViolation(1) + "," + PMD.EOL + getViolation(2)) + getFooter("", "");
+    }
+
+    @Override
+    public String getExpectedError(ProcessingError error) {
+        String detail = error.getDetail().replace("\\", "\\\\").replace("\t", "\\t").replace("\r", "\\r")
+                .replace("\n", "\\n");
+        return getHeader() + "]," + PMD.EOL + getFooter(PMD.EOL + "    {" + PMD.EOL
+                + "      \"filename\": \"file\"," + PMD.EOL
+                + "      \"message\": \"Error\"," + PMD.EOL
+                + "      \"detail\": \"" + detail + "\"" + PMD.EOL
+                + "    }" + PMD.EOL + "  ", "");
+    }
+
+    @Override
+    public String getExpectedError(ConfigurationError error) {
+        return getHeader() + "]," + PMD.EOL + getFooter("", PMD.EOL + "    {" + PMD.EOL
+                + "      \"rule\": \"Foo\"," + PMD.EOL
+                + "      \"message\": \"a configuration error\"" + PMD.EOL
+                + "    }" + PMD.EOL + "  ");
+    }
+
+    @Override
+    public String filter(String expected) {
+        return expected.replaceAll("\"timestamp\": \"[^\"]+\"", "\"timestamp\": \"\"")
+                .replaceAll("\"pmdVersion\": \"[^\"]+\"", "\"pmdVersion\": \"\"");
+    }
+
+    @Test
+    public void testEscaping() throws Exception {
+        String message = "The \"quoted\" \\ string\twith\ncontrol \u0001 chars, \u2028 and \ud801\udc1c";
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename("C:\\src\\Foo.java");
+        Report report = new Report();
+        report.addRuleViolation(new ParametricRuleViolation<Node>(new FooRule(), ctx, createNode(1), message));
+
+        String actual = ReportTest.render(getRenderer(), report);
+
+        JsonObject file = new JsonParser().parse(actual).getAsJsonObject().getAsJsonArray("files").get(0)
+                .getAsJsonObject();
+        assertEquals("C:\\src\\Foo.java", file.get("filename").getAsString());
+        assertEquals(message, file.getAsJsonArray("violations").get(0).getAsJsonObject().get("description")
+                .getAsString());
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.ReportTest;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.rule.MockRule;
+
+public class ShardedRendererTest {
+
+    @org.junit.Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File repo;
+    private String inputPaths;
+    private final MockRule rule = new MockRule("rule", "desc", "msg", "rulesetname");
+
+    @Before
+    public void createFiles() throws IOException {
+        repo = tempFolder.newFolder("repo").getCanonicalFile();
+        for (String file : Arrays.asList("modA/src/p1/A.java", "modA/src/p2/B.java", "modB/src/C.java")) {
+            File source = new File(repo, file);
+            assertTrue(source.getParentFile().mkdirs() || source.getParentFile().isDirectory());
+            assertTrue(source.createNewFile());
+        }
+        inputPaths = new File(repo, "modA").getPath() + "," + new File(repo, "modB").getPath();
+    }
+
+    private Report report(String filename, int line) {
+        Report report = new Report();
+        report.addRuleViolation(ReportTest.createViolation(rule, filename, line, "violation"));
+        return report;
+    }
+
+    private String path(String file) {
+        return new File(repo, file).getPath();
+    }
+
+    private ShardedRenderer render(ShardedRenderer.ShardBy shardBy, Report... reports) throws IOException {
+        ShardedRenderer renderer = new ShardedRenderer("text", new Properties(), new File(repo, "report"), shardBy,
+                                                       inputPaths, 2, 1);
+        renderer.start();
+        for (Report report : reports) {
+            renderer.renderFileReport(report);
+        }
+        renderer.end();
+        renderer.flush();
+        return renderer;
+    }
+
+    private String shard(String name) throws IOException {
+        byte[] content = Files.readAllBytes(new File(new File(repo, "report"), name + ".txt").toPath());
+        return new String(content, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testShardByRoot() throws Exception {
+        ShardedRenderer renderer = render(ShardedRenderer.ShardBy.ROOT, report(path("modA/src/p1/A.java"), 1),
+                                          report(path("modB/src/C.java"), 2), report(path("modA/src/p2/B.java"), 3));
+        assertEquals(Arrays.asList("modA", "modB"), renderer.getShardNames());
+        assertEquals(path("modA/src/p1/A.java") + ":1:\tviolation" + PMD.EOL
+                + path("modA/src/p2/B.java") + ":3:\tviolation" + PMD.EOL, shard("modA"));
+        assertEquals(path("modB/src/C.java") + ":2:\tviolation" + PMD.EOL, shard("modB"));
+    }
+
+    @Test
+    public void testShardByModuleAndPackage() throws Exception {
+        Report[] reports = {
+            report(path("modA/src/p1/A.java"), 1), report(path("modA/src/p2/B.java"), 3),
+            report(path("modB/src/C.java"), 2), report(tempFolder.getRoot().getPath() + "/Elsewhere.java", 4),
+        };
+        assertEquals(Arrays.asList("modA.src", "modB.src", ShardedRenderer.OTHER_SHARD),
+                     render(ShardedRenderer.ShardBy.MODULE, reports).getShardNames());
+        assertEquals(Arrays.asList("modA.src.p1", "modA.src.p2", "modB.src", ShardedRenderer.OTHER_SHARD),
+                     render(ShardedRenderer.ShardBy.PACKAGE, reports).getShardNames());
+        assertEquals(path("modA/src/p2/B.java") + ":3:\tviolation" + PMD.EOL, shard("modA.src.p2"));
+    }
+
+    @Test
+    public void testShortNamesAndErrors() throws Exception {
+        Report report = report("src/C.java", 5);
+        report.addError(new Report.ProcessingError(new RuntimeException("Error"), "src/p1/A.java"));
+        report.addConfigError(new Report.ConfigurationError(rule, "a configuration error"));
+        render(ShardedRenderer.ShardBy.ROOT, report);
+
+        assertEquals("src/C.java:5:\tviolation" + PMD.EOL
+                + "rule\t-\ta configuration error" + PMD.EOL, shard("modB"));
+        assertTrue(shard("modA").startsWith("src/p1/A.java\t-\tError"));
+        assertTrue(shard("modA").endsWith("rule\t-\ta configuration error" + PMD.EOL));
+    }
+
+    @Test
+    public void testShardsAreClosedWhenAShardFails() throws Exception {
+        FailingRenderer.CLOSED.set(0);
+        ShardedRenderer renderer = new ShardedRenderer(FailingRenderer.class.getName(), new Properties(),
+                                                       new File(repo, "report"), ShardedRenderer.ShardBy.ROOT,
+                                                       inputPaths, 2, 1);
+        renderer.start();
+        renderer.renderFileReport(report(path("modA/src/p1/A.java"), 1));
+        renderer.renderFileReport(report(path("modB/src/C.java"), 2));
+        try {
+            renderer.end();
+            fail("The failure of the shard modB should be thrown");
+        } catch (IOException e) {
+            assertEquals("Can't render C.java", e.getMessage());
+        }
+        assertEquals(2, FailingRenderer.CLOSED.get());
+
+        renderer.flush();
+        assertEquals(2, FailingRenderer.CLOSED.get());
+    }
+
+    /** A text renderer which fails on the file C.java, and counts the closed renderers. */
+    public static class FailingRenderer extends TextRenderer {
+
+        static final AtomicInteger CLOSED = new AtomicInteger();
+
+        @Override
+        public void renderFileReport(Report report) throws IOException {
+            for (RuleViolation violation : report) {
+                if (violation.getFilename().endsWith("C.java")) {
+                    throw new IOException("Can't render C.java");
+                }
+            }
+            super.renderFileReport(report);
+        }
+
+        @Override
+        public void flush() {
+            CLOSED.incrementAndGet();
+            super.flush();
+        }
+    }
+}
@@ -6,6 +6,7 @@ package net.sourceforge.pmd.renderers;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -151,4 +152,48 @@ public class SummaryHTMLRendererTest extends AbstractRendererTst {
         rep.addRuleViolation(violation);
         return rep;
     }
+
+    @Test
+    public void testViolationsAreWrittenInOrder() throws Exception {
+        Report[] reports = {
+            report("c", 3, "b", 9), report("a", 5), report("b", 2, "d", 1),
+            report("a", 1, "a", 7), report("e", 4),
+        };
+
+        Renderer renderer = getRenderer();
+        StringWriter writer = new StringWriter();
+        renderer.setWriter(writer);
+        renderer.start();
+        Report merged = new Report();
+        for (Report report : reports) {
+            renderer.renderFileReport(report);
+            merged.merge(report);
+        }
+        renderer.end();
+
+        HTMLRenderer htmlRenderer = new HTMLRenderer();
+        htmlRenderer.setProperty(HTMLRenderer.LINK_PREFIX, "link_prefix");
+        htmlRenderer.setProperty(HTMLRenderer.LINE_PREFIX, "line_prefix");
+        StringWriter body = new StringWriter();
+        htmlRenderer.renderBody(body, merged);
+
+        String actual = writer.toString();
+        String detail = "<center><h2>Detail</h2></center><table align=\"center\" cellspacing=\"0\" cellpadding=\"3\"><tr>"
+                + PMD.EOL;
+        String actualBody = actual.substring(actual.indexOf(detail) + detail.length(),
+                actual.lastIndexOf("</tr></table></body></html>"));
+        assertEquals(body.toString(), actualBody);
+        assertEquals(8, actualBody.split("<tr").length - 2);
+        // only the rendered rows are kept, not the violations
+        assertEquals(0, ((SummaryHTMLRenderer) renderer).report.size());
+    }
+
+    private static Report report(Object... violations) {
+        Report report = new Report();
+        for (int i = 0; i < violations.length; i += 2) {
+            report.addRuleViolation(ReportTest.createViolation(new FooRule(), (String) violations[i],
+                                                               (Integer) violations[i + 1], "blah"));
+        }
+        return report;
+    }
 }
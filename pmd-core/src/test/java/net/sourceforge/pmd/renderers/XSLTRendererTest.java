@@ -4,8 +4,16 @@
 
 package net.sourceforge.pmd.renderers;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import javax.xml.transform.TransformerException;
+
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import net.sourceforge.pmd.FooRule;
 import net.sourceforge.pmd.Report;
@@ -18,6 +26,27 @@ import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
 
 public class XSLTRendererTest {
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private static Report report(int violations, String message) {
+        Report report = new Report();
+        for (int i = 1; i <= violations; i++) {
+            report.addRuleViolation(ReportTest.createViolation(new FooRule(), null, i, message + i));
+        }
+        return report;
+    }
+
+    private static IOException renderFailing(XSLTRenderer renderer, Report report) {
+        try {
+            ReportTest.render(renderer, report);
+        } catch (IOException e) {
+            return e;
+        }
+        Assert.fail("The transformation should have failed");
+        return null;
+    }
+
     @Test
     public void testDefaultStylesheet() throws Exception {
         XSLTRenderer renderer = new XSLTRenderer();
@@ -31,4 +60,36 @@ public class XSLTRendererTest {
         String result = ReportTest.render(renderer, report);
         Assert.assertTrue(result.contains("violation message"));
     }
+
+    @Test
+    public void testReportLargerThanThePipe() throws Exception {
+        XSLTRenderer renderer = new XSLTRenderer();
+        String result = ReportTest.render(renderer, report(2000, "violation message "));
+        Assert.assertTrue(result.contains("violation message 1000"));
+        Assert.assertTrue(result.contains("violation message 2000"));
+    }
+
+    @Test
+    public void testStylesheetFailingAtRuntime() throws Exception {
+        File xslt = tempFolder.newFile("failing.xsl");
+        Files.write(xslt.toPath(), ("<xsl:stylesheet version=\"1.0\" "
+                + "xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+                + "<xsl:template match=\"/\"><xsl:message terminate=\"yes\">stylesheet failure</xsl:message>"
+                + "</xsl:template></xsl:stylesheet>").getBytes(StandardCharsets.UTF_8));
+        XSLTRenderer renderer = new XSLTRenderer();
+        renderer.setProperty(XSLTRenderer.XSLT_FILENAME, xslt.getPath());
+
+        IOException e = renderFailing(renderer, report(2000, "violation message "));
+        Assert.assertEquals("Failed to apply " + xslt.getPath(), e.getMessage());
+        Assert.assertTrue(e.getCause() instanceof TransformerException);
+    }
+
+    @Test
+    public void testTransformationFailingWhileRendering() throws Exception {
+        // the control character is not escaped, the transformer fails on the
+        // first violation and closes the pipe while the others are written
+        IOException e = renderFailing(new XSLTRenderer(), report(2000, "violation \u0001 "));
+        Assert.assertEquals("Failed to apply /pmd-nicerhtml.xsl", e.getMessage());
+        Assert.assertTrue(e.getCause() instanceof TransformerException);
+    }
 }
@@ -0,0 +1,6 @@
+@echo off
+set TOPDIR=%~dp0..
+set OPTS=
+set MAIN_CLASS=net.sourceforge.pmd.cli.BinaryReportDiff
+
+java -classpath "%TOPDIR%\lib\*" %OPTS% %MAIN_CLASS% %*
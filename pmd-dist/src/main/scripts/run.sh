@@ -10,7 +10,7 @@ usage() {
 }
 
 valid_app_options () {
-    echo "pmd, cpd, cpdgui, designer, bgastviewer, designerold"
+    echo "pmd, cpd, cpdgui, designer, bgastviewer, designerold, reportdiff"
 }
 
 is_cygwin() {
@@ -120,6 +120,9 @@ case "${APPNAME}" in
   "cpdgui")
     readonly CLASSNAME="net.sourceforge.pmd.cpd.GUI"
     ;;
+  "reportdiff")
+    readonly CLASSNAME="net.sourceforge.pmd.cli.BinaryReportDiff"
+    ;;
   *)
     echo "${APPNAME} is NOT a valid application name, valid options are:$(valid_app_options)"
     ;;
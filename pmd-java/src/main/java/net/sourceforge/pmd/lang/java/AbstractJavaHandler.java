@@ -19,6 +19,7 @@ import net.sourceforge.pmd.lang.java.ast.DumpFacade;
 import net.sourceforge.pmd.lang.java.ast.JavaNode;
 import net.sourceforge.pmd.lang.java.dfa.DataFlowFacade;
 import net.sourceforge.pmd.lang.java.dfa.JavaDFAGraphRule;
+import net.sourceforge.pmd.lang.java.metrics.JavaMetricsExporter;
 import net.sourceforge.pmd.lang.java.multifile.MultifileVisitorFacade;
 import net.sourceforge.pmd.lang.java.qname.QualifiedNameResolver;
 import net.sourceforge.pmd.lang.java.rule.JavaRuleViolationFactory;
@@ -30,6 +31,7 @@ import net.sourceforge.pmd.lang.java.xpath.MetricFunction;
 import net.sourceforge.pmd.lang.java.xpath.TypeIsExactlyFunction;
 import net.sourceforge.pmd.lang.java.xpath.TypeIsFunction;
 import net.sourceforge.pmd.lang.java.xpath.TypeOfFunction;
+import net.sourceforge.pmd.lang.metrics.MetricsExporter;
 import net.sourceforge.pmd.lang.rule.RuleViolationFactory;
 
 import net.sf.saxon.sxpath.IndependentContext;
@@ -143,6 +145,12 @@ public abstract class AbstractJavaHandler extends AbstractLanguageVersionHandler
     }
 
 
+    @Override
+    public MetricsExporter<?, ?> getMetricsExporter(Writer writer) {
+        return new JavaMetricsExporter(writer);
+    }
+
+
     @Override
     public DFAGraphRule getDFAGraphRule() {
         return new JavaDFAGraphRule();
@@ -11,8 +11,8 @@ import net.sourceforge.pmd.lang.AbstractParser;
 import net.sourceforge.pmd.lang.ParserOptions;
 import net.sourceforge.pmd.lang.TokenManager;
 import net.sourceforge.pmd.lang.ast.AbstractTokenManager;
-import net.sourceforge.pmd.lang.ast.JavaCharStream;
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.ReusableJavaCharStream;
 import net.sourceforge.pmd.lang.java.ast.JavaParser;
 import net.sourceforge.pmd.lang.java.ast.ParseException;
 
@@ -25,6 +25,18 @@ import net.sourceforge.pmd.lang.java.ast.ParseException;
  * @see JavaParser
  */
 public abstract class AbstractJavaParser extends AbstractParser {
+
+    /**
+     * Each thread reuses its char stream, including its buffers and its
+     * table of token images, for all the files it parses.
+     */
+    private static final ThreadLocal<ReusableJavaCharStream> CHAR_STREAM = new ThreadLocal<ReusableJavaCharStream>() {
+        @Override
+        protected ReusableJavaCharStream initialValue() {
+            return new ReusableJavaCharStream();
+        }
+    };
+
     private JavaParser parser;
 
     public AbstractJavaParser(ParserOptions parserOptions) {
@@ -40,7 +52,9 @@ public abstract class AbstractJavaParser extends AbstractParser {
      * Subclass should override this method to modify the JavaParser as needed.
      */
     protected JavaParser createJavaParser(Reader source) throws ParseException {
-        parser = new JavaParser(new JavaCharStream(source));
+        ReusableJavaCharStream charStream = CHAR_STREAM.get();
+        charStream.reset(source);
+        parser = new JavaParser(charStream);
         String suppressMarker = getParserOptions().getSuppressMarker();
         if (suppressMarker != null) {
             parser.setSuppressMarker(suppressMarker);
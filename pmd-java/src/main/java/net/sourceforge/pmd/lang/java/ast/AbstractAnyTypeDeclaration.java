@@ -4,6 +4,10 @@
 
 package net.sourceforge.pmd.lang.java.ast;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.qname.JavaTypeQualifiedName;
 import net.sourceforge.pmd.lang.java.typeresolution.typedefinition.JavaTypeDefinition;
@@ -15,6 +19,7 @@ import net.sourceforge.pmd.lang.java.typeresolution.typedefinition.JavaTypeDefin
 public abstract class AbstractAnyTypeDeclaration extends AbstractJavaAccessTypeNode implements ASTAnyTypeDeclaration {
 
     private JavaTypeQualifiedName qualifiedName;
+    private List<MethodLikeNode> operations;
 
 
     AbstractAnyTypeDeclaration(int i) {
@@ -74,6 +79,27 @@ public abstract class AbstractAnyTypeDeclaration extends AbstractJavaAccessTypeN
         return parent instanceof ASTAnyTypeDeclaration ? (ASTAnyTypeDeclaration) parent : null;
     }
 
+
+    /**
+     * Returns the methods and constructors declared directly in this
+     * type, in the order of their declaration. The list is only built
+     * the first time, the metrics of the class look it up for each of
+     * their aggregates.
+     */
+    // TODO 7.0.0 move that up to ASTAnyTypeDeclaration
+    public final List<MethodLikeNode> getOperations() {
+        if (operations == null) {
+            List<MethodLikeNode> result = new ArrayList<>();
+            for (ASTAnyTypeBodyDeclaration decl : getDeclarations()) {
+                if (decl.jjtGetNumChildren() > 0 && decl.jjtGetChild(0) instanceof ASTMethodOrConstructorDeclaration) {
+                    result.add((MethodLikeNode) decl.jjtGetChild(0));
+                }
+            }
+            operations = Collections.unmodifiableList(result);
+        }
+        return operations;
+    }
+
     @Override
     public final JavaTypeQualifiedName getQualifiedName() {
         return qualifiedName;
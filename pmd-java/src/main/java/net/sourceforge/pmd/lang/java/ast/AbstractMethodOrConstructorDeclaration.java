@@ -4,12 +4,15 @@
 
 package net.sourceforge.pmd.lang.java.ast;
 
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.java.dfa.DataFlowFacade;
 import net.sourceforge.pmd.lang.java.multifile.signature.JavaOperationSignature;
 
 
 public abstract class AbstractMethodOrConstructorDeclaration extends AbstractMethodLikeNode implements ASTMethodOrConstructorDeclaration {
 
     private JavaOperationSignature signature;
+    private DataFlowFacade pendingDataFlow;
 
 
     AbstractMethodOrConstructorDeclaration(int i) {
@@ -30,4 +33,27 @@ public abstract class AbstractMethodOrConstructorDeclaration extends AbstractMet
 
         return signature;
     }
+
+
+    /**
+     * Defers the construction of the data flow graph of this node to the
+     * first call to {@link #getDataFlowNode()}.
+     *
+     * @param facade The facade which builds the graph
+     */
+    public void setPendingDataFlow(DataFlowFacade facade) {
+        this.pendingDataFlow = facade;
+    }
+
+
+    @Override
+    public DataFlowNode getDataFlowNode() {
+        if (pendingDataFlow != null) {
+            DataFlowFacade facade = pendingDataFlow;
+            // the construction itself asks for the data flow nodes
+            pendingDataFlow = null;
+            facade.buildDataFlowFor(this);
+        }
+        return super.getDataFlowNode();
+    }
 }
@@ -4,8 +4,6 @@
 
 package net.sourceforge.pmd.lang.java.ast;
 
-import java.util.Objects;
-
 import net.sourceforge.pmd.lang.ast.QualifiedName;
 import net.sourceforge.pmd.lang.java.qname.JavaOperationQualifiedName;
 import net.sourceforge.pmd.lang.java.qname.JavaTypeQualifiedName;
@@ -122,7 +120,8 @@ public abstract class JavaQualifiedName implements QualifiedName {
             return false;
         }
         JavaQualifiedName that = (JavaQualifiedName) o;
-        return Objects.equals(toString(), that.toString())
+        // the hashcodes are cached, which makes them a cheap shortcut
+        return hashCode() == that.hashCode()
                 && structurallyEquals(that);
     }
 
@@ -8,10 +8,16 @@ import net.sourceforge.pmd.lang.DataFlowHandler;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTConstructorDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.AbstractMethodOrConstructorDeclaration;
 import net.sourceforge.pmd.lang.java.ast.JavaParserVisitorAdapter;
 
 /**
- * TODO What about initializers? This only processes methods and
+ * Sets up the data flow of the methods and constructors of a compilation
+ * unit. The graphs aren't built right away, but only when the data flow of
+ * a method is first requested with {@link AbstractMethodOrConstructorDeclaration#getDataFlowNode()},
+ * so that the methods no rule looks at cost nothing.
+ *
+ * <p>TODO What about initializers? This only processes methods and
  * constructors.
  *
  * @author raik
@@ -29,15 +35,29 @@ public class DataFlowFacade extends JavaParserVisitorAdapter {
 
     @Override
     public Object visit(ASTMethodDeclaration node, Object data) {
-        sbf.buildDataFlowFor(node);
-        vav.compute(node);
+        node.setPendingDataFlow(this);
         return data;
     }
 
     @Override
     public Object visit(ASTConstructorDeclaration node, Object data) {
-        sbf.buildDataFlowFor(node);
-        vav.compute(node);
+        node.setPendingDataFlow(this);
         return data;
     }
+
+    /**
+     * Builds the data flow graph of a method or constructor and computes
+     * its variable accesses. This is called by the node the first time its
+     * data flow is requested.
+     *
+     * @param node The method or constructor
+     */
+    public void buildDataFlowFor(AbstractMethodOrConstructorDeclaration node) {
+        sbf.buildDataFlowFor(node);
+        if (node instanceof ASTMethodDeclaration) {
+            vav.compute((ASTMethodDeclaration) node);
+        } else {
+            vav.compute((ASTConstructorDeclaration) node);
+        }
+    }
 }
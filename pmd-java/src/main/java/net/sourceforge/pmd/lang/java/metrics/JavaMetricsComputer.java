@@ -4,12 +4,10 @@
 
 package net.sourceforge.pmd.lang.java.metrics;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import net.sourceforge.pmd.lang.java.ast.ASTAnyTypeBodyDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTAnyTypeDeclaration;
-import net.sourceforge.pmd.lang.java.ast.ASTMethodOrConstructorDeclaration;
+import net.sourceforge.pmd.lang.java.ast.AbstractAnyTypeDeclaration;
 import net.sourceforge.pmd.lang.java.ast.MethodLikeNode;
 import net.sourceforge.pmd.lang.metrics.AbstractMetricsComputer;
 
@@ -29,15 +27,8 @@ public final class JavaMetricsComputer extends AbstractMetricsComputer<ASTAnyTyp
     // TODO: doesn't consider lambdas
     @Override
     protected List<MethodLikeNode> findOperations(ASTAnyTypeDeclaration node) {
-
-        List<MethodLikeNode> operations = new ArrayList<>();
-
-        for (ASTAnyTypeBodyDeclaration decl : node.getDeclarations()) {
-            if (decl.jjtGetNumChildren() > 0 && decl.jjtGetChild(0) instanceof ASTMethodOrConstructorDeclaration) {
-                operations.add((MethodLikeNode) decl.jjtGetChild(0));
-            }
-        }
-        return operations;
+        // all the type declarations extend it, the operations are memoized on the node
+        return ((AbstractAnyTypeDeclaration) node).getOperations();
     }
 
 }
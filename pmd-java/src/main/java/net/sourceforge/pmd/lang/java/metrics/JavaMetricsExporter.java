@@ -0,0 +1,53 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.metrics;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTAnyTypeDeclaration;
+import net.sourceforge.pmd.lang.java.ast.MethodLikeNode;
+import net.sourceforge.pmd.lang.java.metrics.api.JavaClassMetricKey;
+import net.sourceforge.pmd.lang.java.metrics.api.JavaOperationMetricKey;
+import net.sourceforge.pmd.lang.metrics.MetricKey;
+import net.sourceforge.pmd.lang.metrics.MetricsExporter;
+
+/**
+ * Exports all the standard Java metrics of a project.
+ *
+ * @since 6.6.0
+ */
+public class JavaMetricsExporter extends MetricsExporter<ASTAnyTypeDeclaration, MethodLikeNode> {
+
+    /**
+     * Creates an exporter computing all the metrics of {@link JavaClassMetricKey} and {@link JavaOperationMetricKey}.
+     *
+     * @param writer The destination of the table
+     */
+    public JavaMetricsExporter(Writer writer) {
+        super(LanguageRegistry.getLanguage(JavaLanguageModule.NAME), JavaMetrics.getFacade(),
+              Arrays.<MetricKey<ASTAnyTypeDeclaration>>asList(JavaClassMetricKey.values()),
+              Arrays.<MetricKey<MethodLikeNode>>asList(JavaOperationMetricKey.values()), writer);
+    }
+
+
+    @Override
+    protected List<ASTAnyTypeDeclaration> findTypes(Node root) {
+        List<ASTAnyTypeDeclaration> types = new ArrayList<>();
+        collectNodes(root, ASTAnyTypeDeclaration.class, types);
+        return types;
+    }
+
+
+    @Override
+    protected List<MethodLikeNode> findOperations(ASTAnyTypeDeclaration node) {
+        return JavaMetricsComputer.INSTANCE.findOperations(node);
+    }
+}
@@ -4,10 +4,10 @@
 
 package net.sourceforge.pmd.lang.java.multifile;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.sourceforge.pmd.lang.java.multifile.signature.JavaFieldSigMask;
 import net.sourceforge.pmd.lang.java.multifile.signature.JavaOperationSigMask;
@@ -20,6 +20,9 @@ import net.sourceforge.pmd.lang.java.qname.JavaTypeQualifiedName;
  * stores information about the classes and subpackages it contains. This object provides signature matching utilities
  * to metrics.
  *
+ * <p>The structure is thread-safe, so that several files can be analysed concurrently during the first pass of a
+ * two-pass analysis, before the rules are applied.
+ *
  * @author Clément Fournier
  * @see ClassStats
  * @since 6.0.0
@@ -28,8 +31,14 @@ final class PackageStats implements ProjectMirror {
 
     static final PackageStats INSTANCE = new PackageStats();
 
-    private final Map<String, PackageStats> subPackages = new HashMap<>();
-    private final Map<String, ClassStats> classes = new HashMap<>();
+    private final ConcurrentMap<String, PackageStats> subPackages = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ClassStats> classes = new ConcurrentHashMap<>();
+
+    /**
+     * Index of the classes found so far in this package and its subpackages. Qualified names
+     * cache their hashcode, so this avoids walking the package hierarchy segment by segment.
+     */
+    private final ConcurrentMap<JavaTypeQualifiedName, ClassStats> classIndex = new ConcurrentHashMap<>();
 
 
     /**
@@ -45,6 +54,7 @@ final class PackageStats implements ProjectMirror {
     /* default */ void reset() {
         subPackages.clear();
         classes.clear();
+        classIndex.clear();
     }
 
 
@@ -58,15 +68,30 @@ final class PackageStats implements ProjectMirror {
      * @return The new ClassStats, or the one that was found. Can return null only if createIfNotFound is unset
      */
     /* default */ ClassStats getClassStats(JavaTypeQualifiedName qname, boolean createIfNotFound) {
+        ClassStats indexed = classIndex.get(qname);
+        if (indexed != null) {
+            return indexed;
+        }
+
+        ClassStats found = findClassStats(qname, createIfNotFound);
+        if (found != null) {
+            classIndex.put(qname, found);
+        }
+        return found;
+    }
+
+
+    private ClassStats findClassStats(JavaTypeQualifiedName qname, boolean createIfNotFound) {
         PackageStats container = getSubPackage(qname, createIfNotFound);
 
         if (container == null) {
             return null;
         }
 
-        String topClassName = qname.getClassList().get(0);
+        List<String> classList = qname.getClassList();
+        String topClassName = classList.get(0);
         if (createIfNotFound && container.classes.get(topClassName) == null) {
-            container.classes.put(topClassName, new ClassStats());
+            container.classes.putIfAbsent(topClassName, new ClassStats());
         }
 
         ClassStats next = container.classes.get(topClassName);
@@ -75,7 +100,7 @@ final class PackageStats implements ProjectMirror {
             return null;
         }
 
-        Iterator<String> it = qname.getClassList().iterator();
+        Iterator<String> it = classList.iterator();
         if (it.hasNext()) {
             it.next();
         }
@@ -99,17 +124,17 @@ final class PackageStats implements ProjectMirror {
      * @return The deepest package that contains this resource. Can only return null if createIfNotFound is unset
      */
     private PackageStats getSubPackage(JavaTypeQualifiedName qname, boolean createIfNotFound) {
-        if (qname.getPackageList().isEmpty()) {
+        List<String> packagePath = qname.getPackageList();
+        if (packagePath.isEmpty()) {
             return this; // the toplevel
         }
 
-        List<String> packagePath = qname.getPackageList();
         PackageStats next = this;
 
         for (Iterator<String> it = packagePath.iterator(); it.hasNext() && next != null;) {
             String currentPackage = it.next();
             if (createIfNotFound && next.subPackages.get(currentPackage) == null) {
-                next.subPackages.put(currentPackage, new PackageStats());
+                next.subPackages.putIfAbsent(currentPackage, new PackageStats());
             }
 
             next = next.subPackages.get(currentPackage);
@@ -208,7 +208,7 @@ public class QualifiedNameResolver extends JavaParserVisitorReducedAdapter {
 
         updateClassContext(node.getImage(), localIndex);
 
-        ((AbstractAnyTypeDeclaration) node).setQualifiedName(contextClassQName());
+        ((AbstractAnyTypeDeclaration) node).setQualifiedName(innermostEnclosingTypeName.peek());
 
         super.visit(node, data);
 
@@ -226,7 +226,7 @@ public class QualifiedNameResolver extends JavaParserVisitorReducedAdapter {
         }
 
         updateContextForAnonymousClass();
-        node.setQualifiedName(contextClassQName());
+        node.setQualifiedName(innermostEnclosingTypeName.peek());
 
         super.visit(node, data);
         rollbackClassContext();
@@ -242,7 +242,7 @@ public class QualifiedNameResolver extends JavaParserVisitorReducedAdapter {
         }
 
         updateContextForAnonymousClass();
-        node.setQualifiedName(contextClassQName());
+        node.setQualifiedName(innermostEnclosingTypeName.peek());
 
         super.visit(node, data);
         rollbackClassContext();
@@ -329,7 +329,7 @@ public class QualifiedNameResolver extends JavaParserVisitorReducedAdapter {
 
 
     private void updateContextForAnonymousClass() {
-        updateClassContext("" + anonymousCounters.peek().incrementAndGet(), NOTLOCAL_PLACEHOLDER);
+        updateClassContext(String.valueOf(anonymousCounters.peek().incrementAndGet()), NOTLOCAL_PLACEHOLDER);
     }
 
 
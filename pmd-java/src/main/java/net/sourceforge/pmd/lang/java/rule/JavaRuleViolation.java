@@ -4,7 +4,10 @@
 
 package net.sourceforge.pmd.lang.java.rule;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleContext;
@@ -36,9 +39,24 @@ import net.sourceforge.pmd.lang.symboltable.Scope;
  * <li>Variable name</li>
  * <li>Suppression indicator</li>
  * </ul>
+ *
+ * <p>The class name and the suppression depend on the enclosing declarations
+ * of the node. They're computed once per declaration, so that creating many
+ * violations in a file doesn't walk the tree each time. They're kept as long
+ * as the tree of the file: the maps are weakly keyed by the scope of the file
+ * and by the declaration nodes, and their values don't reference the tree.
  */
 public class JavaRuleViolation extends ParametricRuleViolation<JavaNode> {
 
+    /** The declarations of the files for which a violation was created by this thread. */
+    private static final ThreadLocal<Map<SourceFileScope, FileDeclarations>> FILES
+            = new ThreadLocal<Map<SourceFileScope, FileDeclarations>>() {
+                @Override
+                protected Map<SourceFileScope, FileDeclarations> initialValue() {
+                    return new WeakHashMap<>();
+                }
+            };
+
     public JavaRuleViolation(Rule rule, RuleContext ctx, JavaNode node, String message, int beginLine, int endLine) {
         this(rule, ctx, node, message);
 
@@ -55,18 +73,28 @@ public class JavaRuleViolation extends ParametricRuleViolation<JavaNode> {
             // Package name is on SourceFileScope
             packageName = sourceFileScope.getPackageName() == null ? "" : sourceFileScope.getPackageName();
 
+            FileDeclarations declarations = getDeclarations(sourceFileScope);
+            Node enclosingNode = getEnclosingDeclarationNode(node);
+            Declaration enclosing = declarations.getDeclaration(enclosingNode);
+
             // Class name is built from enclosing ClassScopes
-            setClassNameFrom(node);
+            if (enclosing.className != null) {
+                className = enclosing.className;
+            } else if (declarations.getFallbackClassName(sourceFileScope) != null) {
+                className = declarations.getFallbackClassName(sourceFileScope);
+            }
 
             // Method name comes from 1st enclosing MethodScope
-            if (scope.getEnclosingScope(MethodScope.class) != null) {
-                methodName = scope.getEnclosingScope(MethodScope.class).getName();
+            MethodScope methodScope = scope.getEnclosingScope(MethodScope.class);
+            if (methodScope != null) {
+                methodName = methodScope.getName();
             }
             // Variable name node specific
             setVariableNameIfExists(node);
 
             if (!suppressed) {
-                suppressed = isSupressed(node, getRule());
+                suppressed = suppresses(node, getRule()) || suppressedByChildren(node, getRule())
+                        || enclosing.isSuppressed(enclosingNode, getRule());
             }
         }
     }
@@ -78,13 +106,8 @@ public class JavaRuleViolation extends ParametricRuleViolation<JavaNode> {
      * @param node
      */
     public static boolean isSupressed(Node node, Rule rule) {
-        boolean result = suppresses(node, rule);
+        boolean result = suppresses(node, rule) || suppressedByChildren(node, rule);
 
-        if (!result && node instanceof ASTCompilationUnit) {
-            for (int i = 0; !result && i < node.jjtGetNumChildren(); i++) {
-                result = suppresses(node.jjtGetChild(i), rule);
-            }
-        }
         if (!result) {
             Node parent = node.jjtGetParent();
             while (!result && parent != null) {
@@ -95,34 +118,19 @@ public class JavaRuleViolation extends ParametricRuleViolation<JavaNode> {
         return result;
     }
 
-    private void setClassNameFrom(JavaNode node) {
-        String qualifiedName = null;
-        for (ASTClassOrInterfaceDeclaration parent : node.getParentsOfType(ASTClassOrInterfaceDeclaration.class)) {
-            String clsName = parent.getScope().getEnclosingScope(ClassScope.class).getClassName();
-            if (qualifiedName == null) {
-                qualifiedName = clsName;
-            } else {
-                qualifiedName = clsName + '$' + qualifiedName;
-            }
-        }
-
-        if (qualifiedName == null) {
-            Set<ClassNameDeclaration> classes = node.getScope().getEnclosingScope(SourceFileScope.class)
-                    .getClassDeclarations().keySet();
-            for (ClassNameDeclaration c : classes) {
-                // find the first public class/enum declaration
-                if (c.getAccessNodeParent() instanceof AccessNode) {
-                    if (((AccessNode) c.getAccessNodeParent()).isPublic()) {
-                        qualifiedName = c.getImage();
-                        break;
-                    }
+    /**
+     * The types declared in a compilation unit may suppress the violations
+     * reported on the compilation unit itself.
+     */
+    private static boolean suppressedByChildren(Node node, Rule rule) {
+        if (node instanceof ASTCompilationUnit) {
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                if (suppresses(node.jjtGetChild(i), rule)) {
+                    return true;
                 }
             }
         }
-
-        if (qualifiedName != null) {
-            className = qualifiedName;
-        }
+        return false;
     }
 
     private static boolean suppresses(final Node node, Rule rule) {
@@ -130,6 +138,31 @@ public class JavaRuleViolation extends ParametricRuleViolation<JavaNode> {
                 && ((CanSuppressWarnings) node).hasSuppressWarningsAnnotationFor(rule);
     }
 
+    private static FileDeclarations getDeclarations(SourceFileScope sourceFileScope) {
+        Map<SourceFileScope, FileDeclarations> files = FILES.get();
+        FileDeclarations declarations = files.get(sourceFileScope);
+        if (declarations == null) {
+            declarations = new FileDeclarations();
+            files.put(sourceFileScope, declarations);
+        }
+        return declarations;
+    }
+
+    /**
+     * Returns the closest node which strictly contains the node and
+     * determines the class name or the suppression of its violations, i.e. a
+     * type or a declaration which can be annotated with
+     * {@code @SuppressWarnings}. Returns null if there is none.
+     */
+    private static Node getEnclosingDeclarationNode(Node node) {
+        Node parent = node.jjtGetParent();
+        while (parent != null && !(parent instanceof CanSuppressWarnings)
+                && !(parent instanceof ASTClassOrInterfaceDeclaration)) {
+            parent = parent.jjtGetParent();
+        }
+        return parent;
+    }
+
     private void setVariableNameIfExists(Node node) {
         if (node instanceof ASTFieldDeclaration) {
             variableName = ((ASTFieldDeclaration) node).getVariableName();
@@ -145,4 +178,94 @@ public class JavaRuleViolation extends ParametricRuleViolation<JavaNode> {
             variableName = "";
         }
     }
+
+
+    /**
+     * The declarations of a file which determine the class name and the
+     * suppression of the violations found inside them. The declaration
+     * nodes are weakly referenced, they're given to the methods which need
+     * them.
+     */
+    private static final class FileDeclarations {
+
+        private final Declaration file = new Declaration(null, null);
+        private final Map<Node, Declaration> declarations = new WeakHashMap<>();
+        private String fallbackClassName;
+        private boolean fallbackComputed;
+
+        /**
+         * Returns the declaration of a node returned by
+         * {@link JavaRuleViolation#getEnclosingDeclarationNode(Node)}, or the
+         * declaration of the file if it's null.
+         */
+        Declaration getDeclaration(Node declarationNode) {
+            if (declarationNode == null) {
+                return file;
+            }
+
+            Declaration declaration = declarations.get(declarationNode);
+            if (declaration == null) {
+                Declaration enclosing = getDeclaration(getEnclosingDeclarationNode(declarationNode));
+                String className = enclosing.className;
+                if (declarationNode instanceof ASTClassOrInterfaceDeclaration) {
+                    String clsName = ((JavaNode) declarationNode).getScope().getEnclosingScope(ClassScope.class)
+                                                                 .getClassName();
+                    className = className == null ? clsName : className + '$' + clsName;
+                }
+                declaration = new Declaration(enclosing, className);
+                declarations.put(declarationNode, declaration);
+            }
+            return declaration;
+        }
+
+        /** The class name of the violations which are not inside a class. */
+        String getFallbackClassName(SourceFileScope sourceFileScope) {
+            if (!fallbackComputed) {
+                fallbackComputed = true;
+                Set<ClassNameDeclaration> classes = sourceFileScope.getClassDeclarations().keySet();
+                for (ClassNameDeclaration c : classes) {
+                    // find the first public class/enum declaration
+                    if (c.getAccessNodeParent() instanceof AccessNode) {
+                        if (((AccessNode) c.getAccessNodeParent()).isPublic()) {
+                            fallbackClassName = c.getImage();
+                            break;
+                        }
+                    }
+                }
+            }
+            return fallbackClassName;
+        }
+    }
+
+    /**
+     * A declaration, with the class name and the suppressed rules of the
+     * nodes it contains.
+     */
+    private static final class Declaration {
+
+        private final Declaration enclosing;
+        private final String className;
+        private final Map<Rule, Boolean> suppressions = new IdentityHashMap<>();
+
+        Declaration(Declaration enclosing, String className) {
+            this.enclosing = enclosing;
+            this.className = className;
+        }
+
+        /**
+         * @param node The node of this declaration, null for the file
+         */
+        boolean isSuppressed(Node node, Rule rule) {
+            if (node == null) {
+                return false;
+            }
+            Boolean suppressed = suppressions.get(rule);
+            if (suppressed == null) {
+                suppressed = suppresses(node, rule)
+                        || enclosing.isSuppressed(getEnclosingDeclarationNode(node), rule);
+                suppressions.put(rule, suppressed);
+            }
+            return suppressed;
+        }
+    }
 }
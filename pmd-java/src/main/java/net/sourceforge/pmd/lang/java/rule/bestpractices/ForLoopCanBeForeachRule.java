@@ -10,9 +10,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 
-import org.jaxen.JaxenException;
-
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.xpath.CompiledXPath;
 import net.sourceforge.pmd.lang.java.ast.ASTExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTForInit;
 import net.sourceforge.pmd.lang.java.ast.ASTForStatement;
@@ -38,6 +37,44 @@ import net.sourceforge.pmd.lang.symboltable.ScopedNode;
  */
 public class ForLoopCanBeForeachRule extends AbstractJavaRule {
 
+    private static final String SIMPLE_FOR_UPDATE_XPATH = "./StatementExpressionList[count(*)=1]"
+        + "/StatementExpression"
+        + "/*[self::PostfixExpression and @Image='++' or self::PreIncrementExpression]"
+        + "/PrimaryExpression"
+        + "/PrimaryPrefix"
+        + "/Name";
+
+    private static final CompiledXPath SIMPLE_FOR_UPDATE = CompiledXPath.compile(SIMPLE_FOR_UPDATE_XPATH);
+
+    private static final CompiledXPath SIMPLE_FOR_UPDATE_OF_VAR
+        = CompiledXPath.compile(SIMPLE_FOR_UPDATE_XPATH + "[@Image=$itName]");
+
+    private static final CompiledXPath ZERO_INITIALIZER = CompiledXPath.compile(
+        "./VariableInitializer/Expression/PrimaryExpression/PrimaryPrefix/Literal[@Image='0' and "
+            + "@StringLiteral='false']");
+
+    private static final CompiledXPath GUARD_LEFT_OPERAND = CompiledXPath.compile(
+        "./RelationalExpression/PrimaryExpression/PrimaryPrefix/Name[@Image=$itName]");
+
+    private static final CompiledXPath GUARD_RIGHT_OPERAND = CompiledXPath.compile(
+        "./RelationalExpression[@Image='<']/PrimaryExpression/PrimaryPrefix"
+            + "/Name[matches(@Image,'\\w+\\.(size|length)')]"
+            + "|"
+            + "./RelationalExpression[@Image='<=']/AdditiveExpression[count(*)=2 and "
+            + "@Image='-' and PrimaryExpression/PrimaryPrefix/Literal[@Image='1']]"
+            + "/PrimaryExpression/PrimaryPrefix/Name[matches(@Image,'\\w+\\.(size|length)')]");
+
+    private static final CompiledXPath ARRAY_INDEX = CompiledXPath.compile(
+        "./Expression/PrimaryExpression[count(*)=1]/PrimaryPrefix/Name[@Image=$indexName]");
+
+    private static final CompiledXPath ARRAY_NAME = CompiledXPath.compile(
+        "../PrimaryPrefix/Name[@Image=$arrayName]");
+
+    private static final CompiledXPath ASSIGNMENT = CompiledXPath.compile("../../AssignmentOperator");
+
+    private static final CompiledXPath HAS_NEXT_CALL = CompiledXPath.compile(
+        "./PrimaryExpression/PrimaryPrefix/Name[@Image=concat($indexName, '.hasNext')]");
+
     public ForLoopCanBeForeachRule() {
         addRuleChainVisit(ASTForStatement.class);
     }
@@ -142,13 +179,9 @@ public class ForLoopCanBeForeachRule extends AbstractJavaRule {
     private Entry<VariableNameDeclaration, List<NameOccurrence>> guessIndexVarFromUpdate(ASTForUpdate update) {
 
         Node name = null;
-        try {
-            List<Node> match = update.findChildNodesWithXPath(getSimpleForUpdateXpath(null));
-            if (!match.isEmpty()) {
-                name = match.get(0);
-            }
-        } catch (JaxenException je) {
-            throw new RuntimeException(je);
+        List<Node> match = SIMPLE_FOR_UPDATE.selectNodes(update);
+        if (!match.isEmpty()) {
+            name = match.get(0);
         }
 
         if (name == null || name.getImage() == null) {
@@ -163,18 +196,7 @@ public class ForLoopCanBeForeachRule extends AbstractJavaRule {
      * @return true if there's only one update statement of the form i++ or ++i.
      */
     private boolean isForUpdateSimpleEnough(ASTForUpdate update, String itName) {
-        return update != null && update.hasDescendantMatchingXPath(getSimpleForUpdateXpath(itName));
-    }
-
-
-    private String getSimpleForUpdateXpath(String itName) {
-        return "./StatementExpressionList[count(*)=1]"
-            + "/StatementExpression"
-            + "/*[self::PostfixExpression and @Image='++' or self::PreIncrementExpression]"
-            + "/PrimaryExpression"
-            + "/PrimaryPrefix"
-            + "/Name"
-            + (itName == null ? "" : "[@Image='" + itName + "']");
+        return update != null && SIMPLE_FOR_UPDATE_OF_VAR.hasMatch(update, "itName", itName);
     }
 
 
@@ -187,18 +209,7 @@ public class ForLoopCanBeForeachRule extends AbstractJavaRule {
             return false;
         }
 
-        try {
-            List<Node> zeroLiteral = declarator.findChildNodesWithXPath(
-                "./VariableInitializer/Expression/PrimaryExpression/PrimaryPrefix/Literal[@Image='0' and "
-                    + "@StringLiteral='false']");
-            if (!zeroLiteral.isEmpty()) {
-                return true;
-            }
-        } catch (JaxenException je) {
-            throw new RuntimeException(je);
-        }
-
-        return false;
+        return ZERO_INITIALIZER.hasMatch(declarator);
 
     }
 
@@ -220,29 +231,12 @@ public class ForLoopCanBeForeachRule extends AbstractJavaRule {
 
             if (relationalExpression.hasImageEqualTo("<") || relationalExpression.hasImageEqualTo("<=")) {
 
-                try {
-                    List<Node> left = guardCondition.findChildNodesWithXPath(
-                        "./RelationalExpression/PrimaryExpression/PrimaryPrefix/Name[@Image='" + itName + "']");
-
-                    List<Node> right = guardCondition.findChildNodesWithXPath(
-                        "./RelationalExpression[@Image='<']/PrimaryExpression/PrimaryPrefix"
-                            + "/Name[matches(@Image,'\\w+\\.(size|length)')]"
-                            + "|"
-                            + "./RelationalExpression[@Image='<=']/AdditiveExpression[count(*)=2 and "
-                            + "@Image='-' and PrimaryExpression/PrimaryPrefix/Literal[@Image='1']]"
-                            + "/PrimaryExpression/PrimaryPrefix/Name[matches(@Image,'\\w+\\.(size|length)')]");
-
-                    if (left.isEmpty()) {
-                        return null;
-                    } else if (!right.isEmpty()) {
-                        return right.get(0).getImage().split("\\.")[0];
-                    } else {
-                        return null;
-                    }
-
-                } catch (JaxenException je) {
-                    throw new RuntimeException(je);
+                if (!GUARD_LEFT_OPERAND.hasMatch(guardCondition, "itName", itName)) {
+                    return null;
                 }
+
+                List<Node> right = GUARD_RIGHT_OPERAND.selectNodes(guardCondition);
+                return right.isEmpty() ? null : right.get(0).getImage().split("\\.")[0];
             }
         }
         return null;
@@ -300,10 +294,9 @@ public class ForLoopCanBeForeachRule extends AbstractJavaRule {
                 return false;
             }
 
-            return suffix.hasDescendantMatchingXPath("./Expression/PrimaryExpression[count(*)"
-                                                         + "=1]/PrimaryPrefix/Name[@Image='" + occ.getImage() + "']")
-                && suffix.hasDescendantMatchingXPath("../PrimaryPrefix/Name[@Image='" + arrayName + "']")
-                && !suffix.hasDescendantMatchingXPath("../../AssignmentOperator");
+            return ARRAY_INDEX.hasMatch(suffix, "indexName", occ.getImage())
+                && ARRAY_NAME.hasMatch(suffix, "arrayName", arrayName)
+                && !ASSIGNMENT.hasMatch(suffix);
         }
         return false;
     }
@@ -388,8 +381,7 @@ public class ForLoopCanBeForeachRule extends AbstractJavaRule {
             return false;
         }
 
-        if (!guardCondition.hasDescendantMatchingXPath(
-            "./PrimaryExpression/PrimaryPrefix/Name[@Image='" + indexName + ".hasNext']")) {
+        if (!HAS_NEXT_CALL.hasMatch(guardCondition, "indexName", indexName)) {
             return false;
         }
 
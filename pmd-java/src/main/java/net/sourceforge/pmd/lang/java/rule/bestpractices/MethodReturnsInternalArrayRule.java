@@ -6,9 +6,8 @@ package net.sourceforge.pmd.lang.java.rule.bestpractices;
 
 import java.util.List;
 
-import org.jaxen.JaxenException;
-
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.xpath.CompiledXPath;
 import net.sourceforge.pmd.lang.java.ast.ASTAllocationExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTArrayInitializer;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
@@ -32,6 +31,10 @@ import net.sourceforge.pmd.lang.java.ast.ASTVariableInitializer;
  */
 public class MethodReturnsInternalArrayRule extends AbstractSunSecureRule {
 
+    private static final CompiledXPath EMPTY_ARRAY_ALLOCATION = CompiledXPath.compile(
+            "./PrimaryExpression/PrimaryPrefix/AllocationExpression/ArrayDimsAndInits/Expression/PrimaryExpression"
+                    + "/PrimaryPrefix/Literal[@IntLiteral=\"true\"][@Image=\"0\"]");
+
     @Override
     public Object visit(ASTClassOrInterfaceDeclaration node, Object data) {
         if (node.isInterface()) {
@@ -123,14 +126,9 @@ public class MethodReturnsInternalArrayRule extends AbstractSunSecureRule {
                         if (child instanceof ASTArrayInitializer && child.jjtGetNumChildren() == 0) {
                             return true;
                         } else if (child instanceof ASTExpression) {
-                            try {
-                                List<? extends Node> arrayAllocation = child.findChildNodesWithXPath(
-                                        "./PrimaryExpression/PrimaryPrefix/AllocationExpression/ArrayDimsAndInits/Expression/PrimaryExpression/PrimaryPrefix/Literal[@IntLiteral=\"true\"][@Image=\"0\"]");
-                                if (arrayAllocation != null && arrayAllocation.size() == 1) {
-                                    return true;
-                                }
-                            } catch (JaxenException e) {
-                                return false;
+                            List<Node> arrayAllocation = EMPTY_ARRAY_ALLOCATION.selectNodes(child);
+                            if (arrayAllocation.size() == 1) {
+                                return true;
                             }
                         }
                     }
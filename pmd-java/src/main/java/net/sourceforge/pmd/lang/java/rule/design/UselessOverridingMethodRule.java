@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.xpath.CompiledXPath;
 import net.sourceforge.pmd.lang.java.ast.ASTAnnotation;
 import net.sourceforge.pmd.lang.java.ast.ASTArgumentList;
 import net.sourceforge.pmd.lang.java.ast.ASTArguments;
@@ -41,6 +42,10 @@ public class UselessOverridingMethodRule extends AbstractJavaRule {
     private static final String CLONE = "clone";
     private static final String OBJECT = "Object";
 
+    private static final CompiledXPath RESULT_TYPE = CompiledXPath
+            .compile("./Type/ReferenceType/ClassOrInterfaceType[@Image = $methodType]");
+    private static final CompiledXPath ARGUMENTS = CompiledXPath.compile("./MethodDeclarator/FormalParameters/*");
+
     private static final BooleanProperty IGNORE_ANNOTATIONS_DESCRIPTOR = new BooleanProperty("ignoreAnnotations",
             "Ignore annotations", false, 1.0f);
 
@@ -74,8 +79,7 @@ public class UselessOverridingMethodRule extends AbstractJavaRule {
         boolean result = false;
         ASTResultType type = node.getResultType();
         if (type != null) {
-            result = type.hasDescendantMatchingXPath(
-                    "./Type/ReferenceType/ClassOrInterfaceType[@Image = '" + methodType + "']");
+            result = RESULT_TYPE.hasMatch(type, "methodType", methodType);
         }
         return result;
     }
@@ -98,7 +102,7 @@ public class UselessOverridingMethodRule extends AbstractJavaRule {
     }
 
     private boolean hasArguments(ASTMethodDeclaration node) {
-        return node.hasDescendantMatchingXPath("./MethodDeclarator/FormalParameters/*");
+        return ARGUMENTS.hasMatch(node);
     }
 
     @Override
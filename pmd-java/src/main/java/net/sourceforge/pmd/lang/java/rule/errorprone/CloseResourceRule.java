@@ -9,9 +9,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import org.jaxen.JaxenException;
-
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.xpath.CompiledXPath;
 import net.sourceforge.pmd.lang.java.ast.ASTArgumentList;
 import net.sourceforge.pmd.lang.java.ast.ASTBlock;
 import net.sourceforge.pmd.lang.java.ast.ASTBlockStatement;
@@ -67,6 +66,14 @@ public class CloseResourceRule extends AbstractJavaRule {
     private static final BooleanProperty USE_CLOSE_AS_DEFAULT_TARGET = new BooleanProperty("closeAsDefaultTarget",
             "Consider 'close' as a target by default", true, 3.0f);
 
+    private static final CompiledXPath NULL_INITIALIZER = CompiledXPath
+            .compile("Expression/PrimaryExpression/PrimaryPrefix/Literal/NullLiteral");
+
+    // find expressions like: varName != null or null != varName
+    private static final CompiledXPath NULL_CHECK = CompiledXPath.compile("Expression/EqualityExpression[@Image='!=']"
+            + "  [PrimaryExpression/PrimaryPrefix/Name[@Image=$varName]]"
+            + "  [PrimaryExpression/PrimaryPrefix/Literal/NullLiteral]");
+
     public CloseResourceRule() {
         definePropertyDescriptor(CLOSE_TARGETS_DESCRIPTOR);
         definePropertyDescriptor(TYPES_DESCRIPTOR);
@@ -146,16 +153,7 @@ public class CloseResourceRule extends AbstractJavaRule {
 
     private boolean hasNullInitializer(ASTLocalVariableDeclaration var) {
         ASTVariableInitializer init = var.getFirstDescendantOfType(ASTVariableInitializer.class);
-        if (init != null) {
-            try {
-                List<?> nulls = init
-                        .findChildNodesWithXPath("Expression/PrimaryExpression/PrimaryPrefix/Literal/NullLiteral");
-                return !nulls.isEmpty();
-            } catch (JaxenException e) {
-                return false;
-            }
-        }
-        return false;
+        return init != null && NULL_INITIALIZER.hasMatch(init);
     }
 
     private void ensureClosed(ASTLocalVariableDeclaration var, ASTVariableDeclaratorId id, Object data) {
@@ -359,17 +357,6 @@ public class CloseResourceRule extends AbstractJavaRule {
      */
     private boolean nullCheckIfCondition(ASTBlock enclosingBlock, Node node, String varName) {
         ASTIfStatement ifStatement = findIfStatement(enclosingBlock, node);
-        if (ifStatement != null) {
-            try {
-                // find expressions like: varName != null or null != varName
-                List<?> nodes = ifStatement.findChildNodesWithXPath("Expression/EqualityExpression[@Image='!=']"
-                        + "  [PrimaryExpression/PrimaryPrefix/Name[@Image='" + varName + "']]"
-                        + "  [PrimaryExpression/PrimaryPrefix/Literal/NullLiteral]");
-                return !nodes.isEmpty();
-            } catch (JaxenException e) {
-                throw new RuntimeException(e);
-            }
-        }
-        return true;
+        return ifStatement == null || NULL_CHECK.hasMatch(ifStatement, "varName", varName);
     }
 }
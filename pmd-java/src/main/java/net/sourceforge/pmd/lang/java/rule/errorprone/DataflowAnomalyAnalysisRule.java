@@ -6,32 +6,35 @@ package net.sourceforge.pmd.lang.java.rule.errorprone;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.dfa.DataFlowNode;
 import net.sourceforge.pmd.lang.dfa.VariableAccess;
-import net.sourceforge.pmd.lang.dfa.pathfinder.CurrentPath;
-import net.sourceforge.pmd.lang.dfa.pathfinder.DAAPathFinder;
-import net.sourceforge.pmd.lang.dfa.pathfinder.Executable;
+import net.sourceforge.pmd.lang.dfa.pathfinder.ReachingAccessAnalysis;
+import net.sourceforge.pmd.lang.dfa.pathfinder.ReachingAccessAnalysis.AccessPairHandler;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
 import net.sourceforge.pmd.properties.IntegerProperty;
 
 /**
- * Starts path search for each method and runs code if found.
+ * Finds the consecutive accesses to the variables of each method, and reports
+ * the anomalous ones.
  *
  * @author raik
  * @author Sven Jacob
  */
-public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Executable {
+public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements AccessPairHandler {
+    /**
+     * @deprecated The paths aren't enumerated anymore, this property is ignored.
+     *     Will be removed with PMD 7.0.0.
+     */
+    @Deprecated
     private static final IntegerProperty MAX_PATH_DESCRIPTOR
             = IntegerProperty.named("maxPaths")
-                             .desc("Maximum number of checked paths per method. A lower value will increase the performance of the rule but may decrease anomalies found.")
+                             .desc("Deprecated! Maximum number of checked paths per method. Ignored, all the paths are checked.")
                              .range(100, 8000)
                              .defaultValue(1000)
                              .uiOrder(1.0f).build();
@@ -46,22 +49,6 @@ public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Exe
     private int maxRuleViolations;
     private int currentRuleViolationCount;
 
-
-    private static class Usage {
-        public int accessType;
-        public DataFlowNode node;
-
-        Usage(int accessType, DataFlowNode node) {
-            this.accessType = accessType;
-            this.node = node;
-        }
-
-        @Override
-        public String toString() {
-            return "accessType = " + accessType + ", line = " + node.getLine();
-        }
-    }
-
     public DataflowAnomalyAnalysisRule() {
         definePropertyDescriptor(MAX_PATH_DESCRIPTOR);
         definePropertyDescriptor(MAX_VIOLATIONS_DESCRIPTOR);
@@ -81,55 +68,31 @@ public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Exe
 
         final DataFlowNode node = methodDeclaration.getDataFlowNode().getFlow().get(0);
 
-        final DAAPathFinder pathFinder = new DAAPathFinder(node, this, getProperty(MAX_PATH_DESCRIPTOR));
-        pathFinder.run();
+        new ReachingAccessAnalysis(node).run(this);
 
         super.visit(methodDeclaration, data);
         return data;
     }
 
     @Override
-    public void execute(CurrentPath path) {
-
+    public void consecutiveAccesses(DataFlowNode previousNode, VariableAccess previous,
+                                    DataFlowNode inode, VariableAccess va) {
         if (maxNumberOfViolationsReached()) {
             return;
         }
 
-        Map<String, Usage> usagesByVarName = new HashMap<>();
-
-        for (DataFlowNode inode : path) {
-            if (inode.getVariableAccess() != null) {
-                // iterate all variables of this node
-                for (VariableAccess va : inode.getVariableAccess()) {
-
-                    // get the last usage of the current variable
-                    Usage lastUsage = usagesByVarName.get(va.getVariableName());
-                    if (lastUsage != null) {
-                        // there was a usage to this variable before
-                        checkVariableAccess(inode, va, lastUsage);
-                    }
-
-                    Usage newUsage = new Usage(va.getAccessType(), inode);
-                    // put the new usage for the variable
-                    usagesByVarName.put(va.getVariableName(), newUsage);
-                }
-            }
-        }
-    }
-
-    private void checkVariableAccess(DataFlowNode inode, VariableAccess va, final Usage u) {
         // get the start and end line
-        int startLine = u.node.getLine();
+        int startLine = previousNode.getLine();
         int endLine = inode.getLine();
 
         Node lastNode = inode.getNode();
-        Node firstNode = u.node.getNode();
+        Node firstNode = previousNode.getNode();
 
-        if (va.accessTypeMatches(u.accessType) && va.isDefinition()) { // DD
+        if (va.accessTypeMatches(previous.getAccessType()) && va.isDefinition()) { // DD
             addDaaViolation(rc, lastNode, "DD", va.getVariableName(), startLine, endLine);
-        } else if (u.accessType == VariableAccess.UNDEFINITION && va.isReference()) { // UR
+        } else if (previous.isUndefinition() && va.isReference()) { // UR
             addDaaViolation(rc, lastNode, "UR", va.getVariableName(), startLine, endLine);
-        } else if (u.accessType == VariableAccess.DEFINITION && va.isUndefinition()) { // DU
+        } else if (previous.isDefinition() && va.isUndefinition()) { // DU
             addDaaViolation(rc, firstNode, "DU", va.getVariableName(), startLine, endLine);
         }
     }
@@ -24,7 +24,8 @@ public abstract class AbstractJavaScope extends AbstractScope {
     }
 
     protected void checkForDuplicatedNameDeclaration(NameDeclaration declaration) {
-        if (declaration instanceof VariableNameDeclaration && getDeclarations().keySet().contains(declaration)) {
+        if (declaration instanceof VariableNameDeclaration
+                && getDeclarations(VariableNameDeclaration.class).containsKey(declaration)) {
             throw new RuntimeException(declaration + " is already in the symbol table");
         }
     }
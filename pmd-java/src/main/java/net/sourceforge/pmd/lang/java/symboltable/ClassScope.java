@@ -7,6 +7,7 @@ package net.sourceforge.pmd.lang.java.symboltable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -35,8 +36,7 @@ import net.sourceforge.pmd.lang.java.ast.ASTTypeParameter;
 import net.sourceforge.pmd.lang.java.ast.ASTTypeParameters;
 import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
 import net.sourceforge.pmd.lang.java.ast.JavaParserTreeConstants;
-import net.sourceforge.pmd.lang.symboltable.Applier;
-import net.sourceforge.pmd.lang.symboltable.ImageFinderFunction;
+import net.sourceforge.pmd.lang.symboltable.AbstractScope;
 import net.sourceforge.pmd.lang.symboltable.NameDeclaration;
 import net.sourceforge.pmd.lang.symboltable.NameOccurrence;
 import net.sourceforge.pmd.lang.symboltable.Scope;
@@ -79,6 +79,17 @@ public class ClassScope extends AbstractJavaScope {
      */
     private final ClassNameDeclaration classDeclaration;
 
+    /** Parameter types of the method declarations, which are costly to compute. */
+    private final Map<MethodNameDeclaration, List<TypedNameDeclaration>> parameterTypesCache = new IdentityHashMap<>();
+
+    /**
+     * The last occurrence resolved by {@link #findVariableHere(JavaNameOccurrence)}.
+     * An occurrence is usually looked up twice in a row, first by
+     * {@link #contains(NameOccurrence)} and then by {@link #addNameOccurrence(NameOccurrence)}.
+     */
+    private JavaNameOccurrence lastOccurrence;
+    private Set<NameDeclaration> lastDeclarations;
+
     public ClassScope(final String className, final ClassNameDeclaration classNameDeclaration) {
         this.className = Objects.requireNonNull(className);
         anonymousInnerClassCounter.set(Integer.valueOf(1));
@@ -111,6 +122,12 @@ public class ClassScope extends AbstractJavaScope {
         this.isEnum = isEnum;
     }
 
+    @Override
+    public void addDeclaration(NameDeclaration declaration) {
+        lastOccurrence = null;
+        super.addDeclaration(declaration);
+    }
+
     public Map<ClassNameDeclaration, List<NameOccurrence>> getClassDeclarations() {
         return getDeclarations(ClassNameDeclaration.class);
     }
@@ -179,17 +196,27 @@ public class ClassScope extends AbstractJavaScope {
     }
 
     @Override
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
     protected Set<NameDeclaration> findVariableHere(JavaNameOccurrence occurrence) {
+        if (occurrence != lastOccurrence) {
+            lastDeclarations = resolveVariableHere(occurrence);
+            lastOccurrence = occurrence;
+        }
+        return lastDeclarations;
+    }
+
+    private Set<NameDeclaration> resolveVariableHere(JavaNameOccurrence occurrence) {
         if (occurrence.isThisOrSuper() || className.equals(occurrence.getImage())) {
             // Reference to ourselves!
             return Collections.<NameDeclaration>singleton(classDeclaration);
         }
 
-        Map<MethodNameDeclaration, List<NameOccurrence>> methodDeclarations = getMethodDeclarations();
         Set<NameDeclaration> result = new HashSet<>();
         if (occurrence.isMethodOrConstructorInvocation()) {
             final boolean hasAuxclasspath = getEnclosingScope(SourceFileScope.class).hasAuxclasspath();
-            matchMethodDeclaration(occurrence, methodDeclarations.keySet(), hasAuxclasspath, result);
+            matchMethodDeclaration(occurrence,
+                    findDeclarationsByImage(MethodNameDeclaration.class, occurrence.getImage()),
+                    hasAuxclasspath, result);
 
             if (isEnum && "valueOf".equals(occurrence.getImage())) {
                 result.add(createBuiltInMethodDeclaration("valueOf", "String"));
@@ -197,17 +224,16 @@ public class ClassScope extends AbstractJavaScope {
 
             if (result.isEmpty()) {
                 for (ClassNameDeclaration innerClass : getClassDeclarations().keySet()) {
-                    matchMethodDeclaration(occurrence, innerClass.getScope().getDeclarations(MethodNameDeclaration.class).keySet(), hasAuxclasspath, result);
+                    Scope innerClassScope = innerClass.getScope();
+                    matchMethodDeclaration(occurrence,
+                            declarationsNamed(innerClassScope, MethodNameDeclaration.class, occurrence.getImage()),
+                            hasAuxclasspath, result);
                 }
             }
             return result;
         }
         if (occurrence.isMethodReference()) {
-            for (MethodNameDeclaration mnd : methodDeclarations.keySet()) {
-                if (mnd.getImage().equals(occurrence.getImage())) {
-                    result.add(mnd);
-                }
-            }
+            result.addAll(findDeclarationsByImage(MethodNameDeclaration.class, occurrence.getImage()));
             return result;
         }
 
@@ -219,32 +245,50 @@ public class ClassScope extends AbstractJavaScope {
             }
         }
 
-        Map<VariableNameDeclaration, List<NameOccurrence>> variableDeclarations = getVariableDeclarations();
-        ImageFinderFunction finder = new ImageFinderFunction(images);
-        Applier.apply(finder, variableDeclarations.keySet().iterator());
-        if (finder.getDecl() != null) {
-            result.add(finder.getDecl());
-        }
+        addFirstVariableDeclaration(this, images, result);
 
         // search inner classes
-        Map<ClassNameDeclaration, List<NameOccurrence>> classDeclarations = getClassDeclarations();
-        if (result.isEmpty() && !classDeclarations.isEmpty()) {
+        if (result.isEmpty()) {
             for (ClassNameDeclaration innerClass : getClassDeclarations().keySet()) {
-                Applier.apply(finder, innerClass.getScope().getDeclarations(VariableNameDeclaration.class).keySet().iterator());
-                if (finder.getDecl() != null) {
-                    result.add(finder.getDecl());
-                }
+                addFirstVariableDeclaration(innerClass.getScope(), images, result);
+            }
+        }
+        return result;
+    }
+
+    private static void addFirstVariableDeclaration(Scope scope, List<String> images, Set<NameDeclaration> result) {
+        for (String image : images) {
+            List<VariableNameDeclaration> candidates = declarationsNamed(scope, VariableNameDeclaration.class, image);
+            if (!candidates.isEmpty()) {
+                result.add(candidates.get(0));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Looks up the declarations by image, using the hashed lookup of {@link AbstractScope}
+     * if possible.
+     */
+    private static <T extends NameDeclaration> List<T> declarationsNamed(Scope scope, Class<T> clazz, String image) {
+        if (scope instanceof AbstractScope) {
+            return ((AbstractScope) scope).findDeclarationsByImage(clazz, image);
+        }
+        List<T> result = new ArrayList<>();
+        for (T declaration : scope.getDeclarations(clazz).keySet()) {
+            if (declaration.getImage().equals(image)) {
+                result.add(declaration);
             }
         }
         return result;
     }
 
     private void matchMethodDeclaration(JavaNameOccurrence occurrence,
-            Set<MethodNameDeclaration> methodDeclarations, final boolean hasAuxclasspath,
+            List<MethodNameDeclaration> methodDeclarations, final boolean hasAuxclasspath,
             Set<NameDeclaration> result) {
         for (MethodNameDeclaration mnd : methodDeclarations) {
             if (mnd.getImage().equals(occurrence.getImage())) {
-                List<TypedNameDeclaration> parameterTypes = determineParameterTypes(mnd);
+                List<TypedNameDeclaration> parameterTypes = getParameterTypes(mnd);
                 List<TypedNameDeclaration> argumentTypes = determineArgumentTypes(occurrence, parameterTypes);
 
                 if (!mnd.isVarargs() && occurrence.getArgumentCount() == mnd.getParameterCount()
@@ -352,6 +396,15 @@ public class ClassScope extends AbstractJavaScope {
         return new MethodNameDeclaration(methodDeclarator);
     }
 
+    private List<TypedNameDeclaration> getParameterTypes(MethodNameDeclaration mnd) {
+        List<TypedNameDeclaration> parameterTypes = parameterTypesCache.get(mnd);
+        if (parameterTypes == null) {
+            parameterTypes = determineParameterTypes(mnd);
+            parameterTypesCache.put(mnd, parameterTypes);
+        }
+        return parameterTypes;
+    }
+
     /**
      * Provide a list of types of the parameters of the given method
      * declaration. The types are simple type images.
@@ -63,7 +63,9 @@ public class MethodScope extends AbstractJavaScope {
             return Collections.emptySet();
         }
         DeclarationFinderFunction finder = new DeclarationFinderFunction(occurrence);
-        Applier.apply(finder, getVariableDeclarations().keySet().iterator());
+        List<VariableNameDeclaration> candidates = findDeclarationsByImage(VariableNameDeclaration.class,
+                occurrence.getImage());
+        Applier.apply(finder, candidates.iterator());
         if (finder.getDecl() != null) {
             return Collections.singleton(finder.getDecl());
         }
@@ -117,15 +117,14 @@ public class SourceFileScope extends AbstractJavaScope {
     }
 
     public ClassNameDeclaration findClassNameDeclaration(String name) {
-        ImageFinderFunction finder = new ImageFinderFunction(name);
-        Applier.apply(finder, getClassDeclarations().keySet().iterator());
-        return (ClassNameDeclaration) finder.getDecl();
+        List<ClassNameDeclaration> candidates = findDeclarationsByImage(ClassNameDeclaration.class, name);
+        return candidates.isEmpty() ? null : candidates.get(0);
     }
 
     @Override
     protected Set<NameDeclaration> findVariableHere(JavaNameOccurrence occ) {
         ImageFinderFunction finder = new ImageFinderFunction(occ.getImage());
-        Applier.apply(finder, getDeclarations().keySet().iterator());
+        Applier.apply(finder, findDeclarationsByImage(occ.getImage()).iterator());
         if (finder.getDecl() != null) {
             return Collections.singleton(finder.getDecl());
         }
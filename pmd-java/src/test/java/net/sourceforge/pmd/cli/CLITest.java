@@ -66,6 +66,15 @@ public class CLITest extends BaseCLITest {
         assertTrue(FileUtil.findPatternInFile(new File(resultFilename), "Avoid empty if"));
     }
 
+    @Test
+    public void exportMetrics() throws Exception {
+        String metrics = TEST_OUPUT_DIRECTORY + "exportMetrics.csv";
+        String[] args = { "-d", SOURCE_FOLDER, "-exportmetrics", "-language", "java", "-r", metrics, };
+        runTest(args, "exportMetrics");
+        assertTrue(FileUtil.findPatternInFile(new File(metrics), "^file,kind,name,ATFD,"));
+        assertTrue(FileUtil.findPatternInFile(new File(metrics), "EmptyIfStatement.java,type,"));
+    }
+
     /**
      * See https://sourceforge.net/p/pmd/bugs/1231/
      */
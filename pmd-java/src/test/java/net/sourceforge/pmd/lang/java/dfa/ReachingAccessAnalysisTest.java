@@ -0,0 +1,81 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.dfa;
+
+import static net.sourceforge.pmd.lang.java.ParserTstUtil.getOrderedNodes;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.dfa.VariableAccess;
+import net.sourceforge.pmd.lang.dfa.pathfinder.ReachingAccessAnalysis;
+import net.sourceforge.pmd.lang.dfa.pathfinder.ReachingAccessAnalysis.AccessPairHandler;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+
+public class ReachingAccessAnalysisTest implements AccessPairHandler {
+
+    private final Set<String> pairs = new HashSet<>();
+
+    @Test
+    public void testBranches() {
+        assertTrue(analyse(BRANCHES, Integer.MAX_VALUE));
+
+        // x is defined on line 3 and 5, and can reach its reference on line 7 from both
+        assertTrue(pairs.contains("x: 0@3 -> 0@5"));
+        assertTrue(pairs.contains("x: 0@3 -> 1@7"));
+        assertTrue(pairs.contains("x: 0@5 -> 1@7"));
+        assertFalse(pairs.contains("x: 0@5 -> 0@3"));
+    }
+
+    @Test
+    public void testManyPaths() {
+        StringBuilder code = new StringBuilder("class Foo {" + PMD.EOL + " int bar(int a) {" + PMD.EOL
+                + "  int x = 0;" + PMD.EOL);
+        for (int i = 0; i < 40; i++) {
+            code.append("  if (a > ").append(i).append(") { a--; }").append(PMD.EOL);
+        }
+        code.append("  x = 1;" + PMD.EOL + "  return x;" + PMD.EOL + " }" + PMD.EOL + "}");
+
+        // 2^40 paths
+        assertTrue(analyse(code.toString(), Integer.MAX_VALUE));
+        assertTrue(pairs.contains("x: 0@3 -> 0@44"));
+    }
+
+    @Test
+    public void testBudget() {
+        assertTrue(analyse(BRANCHES, Integer.MAX_VALUE));
+        Set<String> allPairs = new HashSet<>(pairs);
+
+        // the pairs found before the analysis is stopped are reported
+        pairs.clear();
+        assertFalse(analyse(BRANCHES, 4));
+        assertFalse(pairs.isEmpty());
+        assertTrue(pairs.size() < allPairs.size());
+        assertTrue(allPairs.containsAll(pairs));
+    }
+
+    private boolean analyse(String code, int maxVisits) {
+        ASTMethodDeclaration method = getOrderedNodes(ASTMethodDeclaration.class, code).get(0);
+        DataFlowNode root = method.getDataFlowNode().getFlow().get(0);
+        return new ReachingAccessAnalysis(root, maxVisits).run(this);
+    }
+
+    @Override
+    public void consecutiveAccesses(DataFlowNode previousNode, VariableAccess previous,
+                                    DataFlowNode node, VariableAccess access) {
+        pairs.add(access.getVariableName() + ": " + previous.getAccessType() + "@" + previousNode.getLine()
+                + " -> " + access.getAccessType() + "@" + node.getLine());
+    }
+
+    private static final String BRANCHES = "class Foo {" + PMD.EOL + " int bar(boolean b) {" + PMD.EOL
+            + "  int x = 0;" + PMD.EOL + "  if (b) {" + PMD.EOL + "   x = 1;" + PMD.EOL + "  }" + PMD.EOL
+            + "  return x;" + PMD.EOL + " }" + PMD.EOL + "}";
+}
@@ -69,6 +69,15 @@ public class StatementAndBraceFinderTest {
         assertTrue(dfn.isType(NodeType.FOR_END));
     }
 
+    @Test
+    public void testDataFlowIsBuiltWhenRequestedFromADescendant() {
+        ASTStatementExpression se = getOrderedNodes(ASTStatementExpression.class, TEST6).get(1);
+        assertEquals(se, se.getDataFlowNode().getNode());
+        ASTMethodDeclaration method = se.getFirstParentOfType(ASTMethodDeclaration.class);
+        assertEquals(method, method.getDataFlowNode().getNode());
+        assertEquals(se, method.getDataFlowNode().getFlow().get(2).getNode());
+    }
+
     @Test(expected = RuntimeException.class)
     public void testOnlyWorksForMethodsAndConstructors() {
         StatementAndBraceFinder sbf = new StatementAndBraceFinder(LanguageRegistry.getLanguage(JavaLanguageModule.NAME)
@@ -92,4 +101,7 @@ public class StatementAndBraceFinderTest {
 
     private static final String TEST5 = "class Foo {" + PMD.EOL + " void bar() {" + PMD.EOL
             + "  for (int i=0; i<10; i++) {}" + PMD.EOL + " }" + PMD.EOL + "}";
+
+    private static final String TEST6 = "class Foo {" + PMD.EOL + " void foo() {" + PMD.EOL + "  x = 1;" + PMD.EOL
+            + " }" + PMD.EOL + " void bar() {" + PMD.EOL + "  x = 2;" + PMD.EOL + " }" + PMD.EOL + "}";
 }
@@ -0,0 +1,60 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.lang.java.ParserTstUtil;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+
+public class JavaMetricsExporterTest {
+
+    private static final String TEST_CODE = "class Foo {" + PMD.EOL
+        + "  int a;" + PMD.EOL
+        + "  void bar(boolean b) {" + PMD.EOL
+        + "    if (b) { a++; }" + PMD.EOL
+        + "  }" + PMD.EOL
+        + "}";
+
+
+    @Test
+    public void testExport() throws IOException {
+        ASTCompilationUnit acu = ParserTstUtil.parseJavaDefaultVersion(TEST_CODE);
+        StringWriter writer = new StringWriter();
+        JavaMetricsExporter exporter = new JavaMetricsExporter(writer);
+
+        exporter.writeHeader();
+        exporter.export("Foo.java", acu);
+
+        String[] lines = writer.toString().split(PMD.EOL);
+        assertEquals(3, lines.length);
+        assertEquals("file,kind,name,ATFD,WMC,NCSS,LOC,NOPA,NOAM,WOC,TCC,CYCLO,NPATH", lines[0]);
+        assertEquals("Foo.java,type,Foo,0,2,5,6,0,0,,,,", lines[1]);
+        assertEquals("Foo.java,operation,Foo#bar(boolean),0,,3,3,,,,,2,2", lines[2]);
+    }
+
+
+    @Test
+    public void testSameClassInAnotherFile() throws IOException {
+        StringWriter writer = new StringWriter();
+        JavaMetricsExporter exporter = new JavaMetricsExporter(writer);
+
+        exporter.export("Foo.java", ParserTstUtil.parseJavaDefaultVersion(TEST_CODE));
+        exporter.export("other/Foo.java", ParserTstUtil.parseJavaDefaultVersion("class Foo {" + PMD.EOL
+            + "  void bar(boolean b) { }" + PMD.EOL
+            + "}"));
+
+        String[] lines = writer.toString().split(PMD.EOL);
+        assertEquals(4, lines.length);
+        assertEquals("other/Foo.java,type,Foo,0,1,2,3,0,0,,,,", lines[2]);
+        assertEquals("other/Foo.java,operation,Foo#bar(boolean),0,,1,1,,,,,1,1", lines[3]);
+    }
+}
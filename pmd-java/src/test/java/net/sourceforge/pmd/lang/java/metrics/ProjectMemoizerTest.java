@@ -7,6 +7,7 @@ package net.sourceforge.pmd.lang.java.metrics;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,6 +17,7 @@ import org.junit.Test;
 
 import net.sourceforge.pmd.lang.java.ParserTstUtil;
 import net.sourceforge.pmd.lang.java.ast.ASTAnyTypeDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodOrConstructorDeclaration;
 import net.sourceforge.pmd.lang.java.ast.JavaParserVisitorReducedAdapter;
@@ -27,6 +29,7 @@ import net.sourceforge.pmd.lang.metrics.MetricKey;
 import net.sourceforge.pmd.lang.metrics.MetricKeyUtil;
 import net.sourceforge.pmd.lang.metrics.MetricMemoizer;
 import net.sourceforge.pmd.lang.metrics.MetricOptions;
+import net.sourceforge.pmd.lang.metrics.ResultOption;
 
 /**
  * @author Clément Fournier
@@ -65,6 +68,48 @@ public class ProjectMemoizerTest {
     }
 
 
+    @Test
+    public void sameMemoizerTest() {
+        ASTCompilationUnit acu = ParserTstUtil.parseJavaDefaultVersion(MetricsVisitorTestData.class);
+        final JavaProjectMemoizer toplevel = JavaMetrics.getFacade().getLanguageSpecificProjectMemoizer();
+
+        acu.jjtAccept(new JavaParserVisitorReducedAdapter() {
+            @Override
+            public Object visit(ASTMethodOrConstructorDeclaration node, Object data) {
+                assertSame(toplevel.getOperationMemoizer(node.getQualifiedName()),
+                           toplevel.getOperationMemoizer(node.getQualifiedName()));
+                return super.visit(node, data);
+            }
+
+
+            @Override
+            public Object visit(ASTAnyTypeDeclaration node, Object data) {
+                assertSame(toplevel.getClassMemoizer(node.getQualifiedName()),
+                           toplevel.getClassMemoizer(node.getQualifiedName()));
+                return super.visit(node, data);
+            }
+        }, null);
+    }
+
+
+    @Test
+    public void operationsAreMemoizedOnTheTypeTest() {
+        ASTCompilationUnit acu = ParserTstUtil.parseJavaDefaultVersion(MetricsVisitorTestData.class);
+        ASTClassOrInterfaceDeclaration type = acu.getFirstDescendantOfType(ASTClassOrInterfaceDeclaration.class);
+
+        List<MethodLikeNode> operations = JavaMetricsComputer.INSTANCE.findOperations(type);
+        assertSame(operations, type.getOperations());
+        assertSame(operations, JavaMetricsComputer.INSTANCE.findOperations(type));
+
+        double sum = 0;
+        for (MethodLikeNode operation : operations) {
+            sum += JavaMetrics.get(opMetricKey, operation);
+        }
+        // the results of the operations are memoized, so the aggregate is computed on the same values
+        assertEquals(sum, JavaMetrics.get(opMetricKey, type, ResultOption.SUM), 0);
+    }
+
+
     private List<Integer> visitWith(ASTCompilationUnit acu, final boolean force) {
         final JavaProjectMemoizer toplevel = JavaMetrics.getFacade().getLanguageSpecificProjectMemoizer();
 
@@ -5,11 +5,16 @@
 package net.sourceforge.pmd.lang.java.rule;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Test;
 
+import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
@@ -18,6 +23,7 @@ import net.sourceforge.pmd.lang.java.JavaLanguageModule;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTFormalParameter;
 import net.sourceforge.pmd.lang.java.ast.ASTImportDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTLocalVariableDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
 import net.sourceforge.pmd.lang.java.symboltable.ScopeAndDeclarationFinder;
 
@@ -108,4 +114,49 @@ public class JavaRuleViolationTest {
         assertEquals("pkg", violation.getPackageName());
         assertEquals("Bar", violation.getClassName());
     }
+
+    @Test
+    public void testNestedClassNameAndSuppression() {
+        ASTCompilationUnit ast = parse("package pkg; @SuppressWarnings(\"PMD.Suppressed\") class Foo { class Bar {"
+                + " void a() { int x; } void b() { int y; } } } class Baz { void c() { int z; } }");
+        List<ASTLocalVariableDeclaration> variables = new ArrayList<>();
+        ast.findDescendantsOfType(ASTLocalVariableDeclaration.class, variables, true);
+        Rule suppressed = new AbstractJavaRule() { };
+        suppressed.setName("Suppressed");
+        Rule other = new AbstractJavaRule() { };
+        other.setName("Other");
+
+        for (int i = 0; i < 2; i++) {
+            JavaRuleViolation violation = new JavaRuleViolation(suppressed, new RuleContext(), variables.get(i), null);
+            assertEquals("Foo$Bar", violation.getClassName());
+            assertTrue(violation.isSuppressed());
+            assertFalse(new JavaRuleViolation(other, new RuleContext(), variables.get(i), null).isSuppressed());
+        }
+
+        JavaRuleViolation violation = new JavaRuleViolation(suppressed, new RuleContext(), variables.get(2), null);
+        assertEquals("Baz", violation.getClassName());
+        assertEquals("c", violation.getMethodName());
+        assertFalse(violation.isSuppressed());
+    }
+
+    @Test
+    public void testDeclarationsOfInterleavedFiles() {
+        ASTCompilationUnit foo = parse("@SuppressWarnings(\"PMD.Suppressed\") class Foo { void bar(int x) {} }");
+        ASTCompilationUnit baz = parse("class Baz { void bar(int x) {} }");
+        Rule suppressed = new AbstractJavaRule() { };
+        suppressed.setName("Suppressed");
+
+        // the declarations of each file are kept while the violations of the other one are created
+        for (int i = 0; i < 2; i++) {
+            JavaRuleViolation violation = new JavaRuleViolation(suppressed, new RuleContext(),
+                    foo.getFirstDescendantOfType(ASTFormalParameter.class), null);
+            assertEquals("Foo", violation.getClassName());
+            assertTrue(violation.isSuppressed());
+
+            violation = new JavaRuleViolation(suppressed, new RuleContext(),
+                    baz.getFirstDescendantOfType(ASTFormalParameter.class), null);
+            assertEquals("Baz", violation.getClassName());
+            assertFalse(violation.isSuppressed());
+        }
+    }
 }
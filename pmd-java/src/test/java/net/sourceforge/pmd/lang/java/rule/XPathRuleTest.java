@@ -186,6 +186,34 @@ public class XPathRuleTest extends RuleTst {
         assertEquals(5, nodes.get(1).getBeginLine());
     }
 
+    /**
+     * The nodes of a union are sorted in document order, and only the same
+     * node is removed as a duplicate.
+     *
+     * @throws Exception
+     *             any error
+     */
+    @Test
+    public void testUnionInDocumentOrder() throws Exception {
+        final String SOURCE = "public class Foo {\n" + "  int a;\n" + "  void bar() { }\n" + "  int b;\n" + "}";
+        LanguageVersion language = LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion();
+        ParserOptions parserOptions = language.getLanguageVersionHandler().getDefaultParserOptions();
+        Parser parser = language.getLanguageVersionHandler().getParser(parserOptions);
+        ASTCompilationUnit cu = (ASTCompilationUnit) parser.parse("test", new StringReader(SOURCE));
+        RuleContext ruleContext = new RuleContext();
+        ruleContext.setLanguageVersion(language);
+
+        XPathRuleQuery xpathRuleQuery = new SaxonXPathRuleQuery();
+        xpathRuleQuery.setXPath("//MethodDeclarator | //VariableDeclaratorId");
+        xpathRuleQuery.setProperties(new HashMap<PropertyDescriptor<?>, Object>());
+        xpathRuleQuery.setVersion(XPathRuleQuery.XPATH_2_0);
+        List<Node> nodes = xpathRuleQuery.evaluate(cu, ruleContext);
+        assertEquals(3, nodes.size());
+        assertEquals(2, nodes.get(0).getBeginLine());
+        assertEquals(3, nodes.get(1).getBeginLine());
+        assertEquals(4, nodes.get(2).getBeginLine());
+    }
+
     private static Report getReportForTestString(Rule r, String test) throws PMDException {
         PMD p = new PMD();
         RuleContext ctx = new RuleContext();
@@ -66,6 +66,20 @@ public class ClassScopeTest extends STBBaseTst {
         assertTrue(s.getDeclarations().keySet().iterator().hasNext());
     }
 
+    @Test
+    public void testFindDeclarationsByImage() {
+        ClassNameDeclaration classDeclaration = new ClassNameDeclaration(null);
+        ClassScope s = new ClassScope("Foo", classDeclaration);
+        ASTVariableDeclaratorId node = new ASTVariableDeclaratorId(1);
+        node.setImage("bar");
+        VariableNameDeclaration bar = new VariableNameDeclaration(node);
+        s.addDeclaration(bar);
+        assertEquals(1, s.findDeclarationsByImage("bar").size());
+        assertEquals(bar, s.findDeclarationsByImage(VariableNameDeclaration.class, "bar").get(0));
+        assertTrue(s.findDeclarationsByImage(MethodNameDeclaration.class, "bar").isEmpty());
+        assertTrue(s.findDeclarationsByImage("baz").isEmpty());
+    }
+
     @Test
     public void testCantContainsSuperToString() {
         ClassNameDeclaration classDeclaration = new ClassNameDeclaration(null);
@@ -65,7 +65,7 @@ import org.mozilla.javascript.ast.XmlExpression;
 import org.mozilla.javascript.ast.XmlMemberGet;
 import org.mozilla.javascript.ast.XmlString;
 
-import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.ChildrenBuilder;
 import net.sourceforge.pmd.lang.ast.SourceCodePositioner;
 
 public final class EcmascriptTreeBuilder implements NodeVisitor {
@@ -129,7 +129,7 @@ public final class EcmascriptTreeBuilder implements NodeVisitor {
     private Map<ParseProblem, TrailingCommaNode> parseProblemToNode = new HashMap<>();
 
     // The nodes having children built.
-    private Stack<Node> nodes = new Stack<>();
+    private final ChildrenBuilder nodes = new ChildrenBuilder();
 
     // The Rhino nodes with children to build.
     private Stack<AstNode> parents = new Stack<>();
@@ -191,19 +191,15 @@ public final class EcmascriptTreeBuilder implements NodeVisitor {
         EcmascriptNode<T> node = createNodeAdapter(astNode);
 
         // Append to parent
-        Node parent = nodes.isEmpty() ? null : nodes.peek();
-        if (parent != null) {
-            parent.jjtAddChild(node, parent.jjtGetNumChildren());
-            node.jjtSetParent(parent);
-        }
+        nodes.add(node);
 
         handleParseProblems(node);
 
         // Build the children...
-        nodes.push(node);
+        nodes.open((AbstractEcmascriptNode<?>) node);
         parents.push(astNode);
         astNode.visit(this);
-        nodes.pop();
+        nodes.close();
         parents.pop();
 
         return node;
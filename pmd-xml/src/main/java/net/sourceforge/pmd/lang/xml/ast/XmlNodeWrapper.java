@@ -13,7 +13,6 @@ import java.util.Objects;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.NodeList;
 import org.w3c.dom.Text;
 
 import net.sourceforge.pmd.lang.ast.Node;
@@ -32,6 +31,8 @@ public class XmlNodeWrapper extends AbstractDomNodeProxy implements XmlNode {
 
     private final XmlParser parser;
     private Object userData;
+    /** Index in the parent, -1 until it's known. The DOM isn't modified after parsing. */
+    private int childIndex = -1;
 
 
     public XmlNodeWrapper(XmlParser parser, org.w3c.dom.Node domNode) {
@@ -73,20 +74,26 @@ public class XmlNodeWrapper extends AbstractDomNodeProxy implements XmlNode {
 
     @Override
     public int jjtGetChildIndex() {
-        org.w3c.dom.Node parent = node.getParentNode();
-        NodeList childNodes = parent.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            if (node == childNodes.item(i)) {
-                return i;
+        if (childIndex < 0) {
+            if (node.getParentNode() == null) {
+                throw new IllegalStateException("This node has no parent: " + node);
+            }
+            int index = 0;
+            for (org.w3c.dom.Node sibling = node.getPreviousSibling(); sibling != null;
+                 sibling = sibling.getPreviousSibling()) {
+                index++;
             }
+            childIndex = index;
         }
-        throw new IllegalStateException("This node is not a child of its parent: " + node);
+        return childIndex;
     }
 
 
     @Override
     public XmlNode jjtGetChild(int index) {
-        return parser.wrapDomNode(node.getChildNodes().item(index));
+        XmlNodeWrapper child = (XmlNodeWrapper) parser.wrapDomNode(node.getChildNodes().item(index));
+        child.childIndex = index;
+        return child;
     }
 
 